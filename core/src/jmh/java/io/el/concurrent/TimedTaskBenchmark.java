@@ -0,0 +1,80 @@
+package io.el.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the allocation rate of executing tasks with task timings enabled, with and without
+ * recycling the task wrappers. Run with {@code ./gradlew :core:jmh} and compare {@code
+ * gc.alloc.rate.norm} of both benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimedTaskBenchmark {
+
+  private static final int TASKS = 1024;
+  private static final Runnable NOOP_TASK = () -> {};
+
+  private SingleThreadEventLoop eventLoop;
+
+  @Setup
+  public void setup() throws Exception {
+    eventLoop =
+        new SingleThreadEventLoop(new ThreadPerTaskExecutor(Executors.defaultThreadFactory())) {
+          @Override
+          protected void run() {
+            do {
+              if (runTasks() == 0) {
+                idle();
+              }
+            } while (!confirmShutdown());
+          }
+        }.recordTaskTimings(true);
+    eventLoop.submit(NOOP_TASK).get();
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+    eventLoop.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TASKS)
+  @Fork(value = 1, jvmArgsAppend = "-Dio.el.recycler.maxCapacityPerThread=4096")
+  public void pooled() throws InterruptedException {
+    executeTasks();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TASKS)
+  @Fork(value = 1, jvmArgsAppend = "-Dio.el.recycler.maxCapacityPerThread=0")
+  public void unpooled() throws InterruptedException {
+    executeTasks();
+  }
+
+  private void executeTasks() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    for (int i = 1; i < TASKS; i++) {
+      eventLoop.execute(NOOP_TASK);
+    }
+    eventLoop.execute(latch::countDown);
+    latch.await();
+  }
+}
@@ -0,0 +1,19 @@
+package io.el.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The {@link RejectionPolicy#abort()} policy. It is a single instance, so {@link
+ * SingleThreadEventLoop#executeAll(java.util.Collection)} can reject a batch as a whole under it.
+ */
+final class AbortPolicy implements RejectionPolicy {
+
+  static final AbortPolicy INSTANCE = new AbortPolicy();
+
+  private AbortPolicy() {}
+
+  @Override
+  public void rejected(Runnable task, Priority priority, SingleThreadEventLoop eventLoop) {
+    throw new RejectedExecutionException("Event loop failed to add task");
+  }
+}
@@ -1,11 +1,18 @@
 package io.el.concurrent;
 
+import static io.el.internal.ObjectUtil.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public abstract class AbstractEventLoop implements EventLoop {
 
@@ -19,7 +26,10 @@ public abstract class AbstractEventLoop implements EventLoop {
 
   @Override
   public Promise<?> submit(Runnable task) {
-    Promise<Void> promise = new DefaultPromise<>(this, task);
+    Promise<Void> promise =
+        task instanceof StealableTask
+            ? new StealablePromise<>(this, (StealableTask) task)
+            : new DefaultPromise<>(this, task);
     execute(promise);
     return promise;
   }
@@ -32,29 +42,70 @@ public abstract class AbstractEventLoop implements EventLoop {
   }
 
   @Override
-  public <V> Future<V> submit(Runnable task, V result) {
-    throw new UnsupportedOperationException();
+  public void executeAll(Runnable... tasks) {
+    executeAll(Arrays.asList(checkNotNull(tasks, "tasks")));
   }
 
   @Override
-  public <V> List<Future<V>> invokeAll(Collection<? extends Callable<V>> tasks) {
-    throw new UnsupportedOperationException();
+  public <V> Promise<List<V>> submitAll(Collection<? extends Callable<V>> tasks) {
+    checkNotNull(tasks, "tasks");
+
+    List<Promise<V>> promises = new ArrayList<>(tasks.size());
+    for (Callable<V> task : tasks) {
+      promises.add(new DefaultPromise<>(this, checkNotNull(task, "task")));
+    }
+    // Listen before running the tasks, so the results are gathered without extra hops.
+    Promise<List<V>> all = Promise.all(this, promises);
+    executeAll(promises);
+    return all;
+  }
+
+  @Override
+  public <V> Promise<V> submit(Runnable task, V result) {
+    Promise<V> promise = new DefaultPromise<>(this, Executors.callable(task, result));
+    execute(promise);
+    return promise;
+  }
+
+  @Override
+  public <V> Promise<V> submitAny(Collection<? extends Callable<V>> tasks) {
+    return Invocations.submitAny(tasks, this::submit, this);
+  }
+
+  @Override
+  public <V> List<Future<V>> invokeAll(Collection<? extends Callable<V>> tasks)
+      throws InterruptedException {
+    checkNotInEventLoop();
+    return Invocations.invokeAll(tasks, this::submit);
   }
 
   @Override
   public <V> List<Future<V>> invokeAll(
-      Collection<? extends Callable<V>> tasks, long timeout, TimeUnit unit) {
-    throw new UnsupportedOperationException();
+      Collection<? extends Callable<V>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    checkNotInEventLoop();
+    return Invocations.invokeAll(tasks, timeout, unit, this::submit, this);
   }
 
   @Override
-  public <V> V invokeAny(Collection<? extends Callable<V>> tasks) {
-    throw new UnsupportedOperationException();
+  public <V> V invokeAny(Collection<? extends Callable<V>> tasks)
+      throws InterruptedException, ExecutionException {
+    checkNotInEventLoop();
+    return Invocations.invokeAny(tasks, this::submit, this);
   }
 
   @Override
-  public <V> V invokeAny(Collection<? extends Callable<V>> tasks, long timeout, TimeUnit unit) {
-    throw new UnsupportedOperationException();
+  public <V> V invokeAny(Collection<? extends Callable<V>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    checkNotInEventLoop();
+    return Invocations.invokeAny(tasks, timeout, unit, this::submit, this);
+  }
+
+  /** Waiting in the event loop for its own tasks would never return. */
+  private void checkNotInEventLoop() {
+    if (inEventLoop()) {
+      throw new IllegalStateException("must not be invoked from the event loop");
+    }
   }
 
   @Override
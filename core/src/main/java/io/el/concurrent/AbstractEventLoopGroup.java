@@ -1,28 +1,40 @@
 package io.el.concurrent;
 
+import static io.el.internal.ObjectUtil.checkNotNull;
 import static io.el.internal.ObjectUtil.checkPositive;
 
 import io.el.concurrent.EventLoopChooserFactory.EventLoopChooser;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractEventLoopGroup implements EventLoopGroup {
 
   static final long DEFAULT_TIMEOUT = 15;
   private final List<EventLoop> children;
   private final EventLoopChooser chooser;
+  private final EventLoopMetrics metrics;
+  private final Promise<Void> terminationPromise;
 
   /**
    * * Create {@link EventLoop} children with size of {@param nThreads}, then add chooser with
    * {@param chooserFactory}
    */
+  protected AbstractEventLoopGroup(
+      int nThreads, Executor executor, DefaultEventLoopChooserFactory.Policy chooserPolicy) {
+    this(nThreads, executor, new DefaultEventLoopChooserFactory(chooserPolicy));
+  }
+
   protected AbstractEventLoopGroup(
       int nThreads, Executor executor, EventLoopChooserFactory chooserFactory) {
     checkPositive(nThreads, "nThreads");
@@ -57,6 +69,25 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
     }
 
     this.chooser = chooserFactory.newChooser(this.children);
+    for (EventLoop child : this.children) {
+      if (child instanceof SingleThreadEventLoop) {
+        ((SingleThreadEventLoop) child).siblings(this.children);
+      }
+    }
+    this.metrics = new EventLoopGroupMetrics(this.children);
+
+    this.terminationPromise = new TerminationPromise(this.children.get(0));
+    AtomicInteger terminatedChildren = new AtomicInteger();
+    for (EventLoop child : this.children) {
+      child
+          .terminationPromise()
+          .addListener(
+              p -> {
+                if (terminatedChildren.incrementAndGet() == this.children.size()) {
+                  this.terminationPromise.setSuccess(null);
+                }
+              });
+    }
   }
 
   protected abstract EventLoop newChild(Executor executor) throws Exception;
@@ -68,6 +99,11 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
     return this.chooser.next();
   }
 
+  @Override
+  public EventLoopMetrics metrics() {
+    return this.metrics;
+  }
+
   @Override
   public Iterator<EventLoop> iterator() {
     return this.children.iterator();
@@ -82,6 +118,15 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
         .orElse(true);
   }
 
+  @Override
+  public boolean shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+    return this.children.stream()
+        .map(c -> c.shutdownGracefully(quietPeriod, timeout, unit))
+        .filter(s -> s.equals(false))
+        .findAny()
+        .orElse(true);
+  }
+
   @Override
   public boolean isShuttingDown() {
     return this.children.stream()
@@ -109,20 +154,16 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
         .orElse(true);
   }
 
-  /** * Wait until every child {@link EventLoop} terminated through while-loop */
+  @Override
+  public Promise<?> terminationPromise() {
+    return this.terminationPromise;
+  }
+
+  /** Wait until every child {@link EventLoop} terminated, or {@code timeout} elapsed. */
   @Override
   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-    long deadline = System.nanoTime() + unit.toNanos(timeout);
-    for (EventLoop el : this.children) {
-      long timeLeft = deadline - System.nanoTime();
-      while (timeLeft > 0 && !el.awaitTermination(timeLeft, TimeUnit.NANOSECONDS)) {
-        timeLeft = deadline - System.nanoTime();
-      }
-      if (timeLeft <= 0) {
-        break;
-      }
-    }
-    return this.isTerminated();
+    checkNotNull(unit, "unit");
+    return this.terminationPromise.await(timeout, unit).isDone();
   }
 
   @Override
@@ -131,7 +172,7 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
   }
 
   @Override
-  public <T> Future<T> submit(Runnable task, T result) {
+  public <T> Promise<T> submit(Runnable task, T result) {
     return this.next().submit(task, result);
   }
 
@@ -145,6 +186,43 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
     this.next().execute(command);
   }
 
+  @Override
+  public void executeAll(Collection<? extends Runnable> tasks) {
+    List<? extends Runnable> list = new ArrayList<>(checkNotNull(tasks, "tasks"));
+    int batches = Math.min(children.size(), list.size());
+    int from = 0;
+    for (int i = 0; i < batches; i++) {
+      int to = from + (list.size() - from) / (batches - i);
+      this.next().executeAll(list.subList(from, to));
+      from = to;
+    }
+  }
+
+  @Override
+  public void executeAll(Runnable... tasks) {
+    executeAll(Arrays.asList(checkNotNull(tasks, "tasks")));
+  }
+
+  @Override
+  public <V> Promise<List<V>> submitAll(Collection<? extends Callable<V>> tasks) {
+    List<? extends Callable<V>> list = new ArrayList<>(checkNotNull(tasks, "tasks"));
+    int batches = Math.min(children.size(), list.size());
+    List<Promise<List<V>>> promises = new ArrayList<>(batches);
+    int from = 0;
+    for (int i = 0; i < batches; i++) {
+      int to = from + (list.size() - from) / (batches - i);
+      promises.add(this.next().submitAll(list.subList(from, to)));
+      from = to;
+    }
+    return Promise.all(children.get(0), promises)
+        .thenApply(
+            results -> {
+              List<V> values = new ArrayList<>(list.size());
+              results.forEach(values::addAll);
+              return values;
+            });
+  }
+
   @Override
   public void shutdown() {
     throw new UnsupportedOperationException();
@@ -156,23 +234,47 @@ public abstract class AbstractEventLoopGroup implements EventLoopGroup {
   }
 
   @Override
-  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
-    throw new UnsupportedOperationException();
+  public <T> Promise<T> submitAny(Collection<? extends Callable<T>> tasks) {
+    return Invocations.submitAny(tasks, this::submit, this.next());
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException {
+    checkNotInEventLoop();
+    return Invocations.invokeAll(tasks, this::submit);
   }
 
   @Override
   public <T> List<Future<T>> invokeAll(
-      Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) {
-    throw new UnsupportedOperationException();
+      Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    checkNotInEventLoop();
+    return Invocations.invokeAll(tasks, timeout, unit, this::submit, this.next());
   }
 
   @Override
-  public <T> T invokeAny(Collection<? extends Callable<T>> tasks) {
-    throw new UnsupportedOperationException();
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    checkNotInEventLoop();
+    return Invocations.invokeAny(tasks, this::submit, this.next());
   }
 
   @Override
-  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) {
-    throw new UnsupportedOperationException();
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    checkNotInEventLoop();
+    return Invocations.invokeAny(tasks, timeout, unit, this::submit, this.next());
+  }
+
+  /**
+   * Waiting in one of the event loops for tasks which may be queued behind it would never return.
+   */
+  private void checkNotInEventLoop() {
+    for (EventLoop child : children) {
+      if (child.inEventLoop()) {
+        throw new IllegalStateException("must not be invoked from an event loop of the group");
+      }
+    }
   }
 }
@@ -0,0 +1,485 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The base of the {@link Promise}s, which implements completing, waiting and notifying listeners.
+ * Whether and how a promise runs a task is left to its subclasses.
+ */
+public abstract class AbstractPromise<V> implements Promise<V> {
+
+  private static final Object EMPTY_RESULT = new Object();
+  private static final Logger LOGGER = LogManager.getLogger();
+  /**
+   * How many times a waiter checks for completion before parking its thread. Spinning can save the
+   * park and unpark round trip when the promise is expected to complete within microseconds.
+   */
+  private static final int AWAIT_SPINS =
+      Math.max(0, Integer.getInteger("io.el.concurrent.promise.awaitSpins", 0));
+
+  @SuppressWarnings("unchecked")
+  private static final Class<AbstractPromise<?>> PROMISE_CLASS =
+      (Class<AbstractPromise<?>>) (Class<?>) AbstractPromise.class;
+
+  private static final AtomicReferenceFieldUpdater<AbstractPromise<?>, Object> resultUpdater =
+      AtomicReferenceFieldUpdater.newUpdater(PROMISE_CLASS, Object.class, "result");
+  private static final AtomicReferenceFieldUpdater<AbstractPromise<?>, Waiter> waitersUpdater =
+      AtomicReferenceFieldUpdater.newUpdater(PROMISE_CLASS, Waiter.class, "waiters");
+  private static final AtomicReferenceFieldUpdater<AbstractPromise<?>, Object> listenersUpdater =
+      AtomicReferenceFieldUpdater.newUpdater(PROMISE_CLASS, Object.class, "listeners");
+
+  private final EventLoop eventLoop;
+  // null while not done, EMPTY_RESULT for a null value, a CauseHolder on failure, or the value
+  private volatile Object result;
+  // Treiber stack of the threads blocked in await
+  private volatile Waiter waiters;
+  // null, a single PromiseListener, or a PromiseListener[] which is copied on every change
+  private volatile Object listeners;
+
+  protected AbstractPromise(EventLoop eventLoop) {
+    this.eventLoop = eventLoop;
+  }
+
+  /**
+   * Returns whether listeners may be notified in the current thread, by default only in its event
+   * loop.
+   */
+  protected boolean canNotifyInCurrentThread() {
+    return eventLoop().inEventLoop();
+  }
+
+  @Override
+  public boolean isSuccess() {
+    Object result = this.result;
+    return result != null && !(result instanceof CauseHolder);
+  }
+
+  @Override
+  public Promise<V> addListener(PromiseListener<? extends Promise<? super V>> listener) {
+    checkNotNull(listener, "listener");
+
+    while (true) {
+      Object current = listeners;
+      Object update;
+      if (current == null) {
+        update = listener;
+      } else if (current instanceof PromiseListener) {
+        update = new PromiseListener<?>[] {(PromiseListener<?>) current, listener};
+      } else {
+        PromiseListener<?>[] array = (PromiseListener<?>[]) current;
+        PromiseListener<?>[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = listener;
+        update = copy;
+      }
+      if (listenersUpdater.compareAndSet(this, current, update)) {
+        break;
+      }
+    }
+    if (isDone()) {
+      notifyListeners();
+    }
+    return this;
+  }
+
+  private void notifyListeners() {
+    // Most promises have no listener, so do not hop to the event loop for nothing.
+    if (listeners == null) {
+      return;
+    }
+    if (!canNotifyInCurrentThread()) {
+      eventLoop.execute(this::notifyListeners);
+      return;
+    }
+
+    // Taking the listeners out makes sure each of them is notified once, even if more listeners
+    // are added from other threads while notifying.
+    Object current;
+    while ((current = listenersUpdater.getAndSet(this, null)) != null) {
+      if (current instanceof PromiseListener) {
+        notifyListener((PromiseListener<?>) current);
+        continue;
+      }
+      for (PromiseListener<?> listener : (PromiseListener<?>[]) current) {
+        notifyListener(listener);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void notifyListener(PromiseListener<?> listener) {
+    try {
+      ((PromiseListener<Promise<V>>) listener).onComplete(this);
+    } catch (Exception e) {
+      LOGGER.error("A task terminated with unexpected exception. Exception: ", e);
+    }
+  }
+
+  @Override
+  public <R> Promise<R> thenApply(Function<? super V, ? extends R> fn) {
+    checkNotNull(fn, "fn");
+
+    CompletionPromise<R> next = new CompletionPromise<>(eventLoop);
+    addListener(
+        promise -> {
+          Object result = this.result;
+          if (result instanceof CauseHolder) {
+            next.tryFailure(((CauseHolder) result).cause);
+            return;
+          }
+          try {
+            next.trySuccess(fn.apply(valueOf(result)));
+          } catch (Throwable t) {
+            next.tryFailure(t);
+          }
+        });
+    return next;
+  }
+
+  @Override
+  public <R> Promise<R> thenCompose(Function<? super V, ? extends Promise<R>> fn) {
+    checkNotNull(fn, "fn");
+
+    CompletionPromise<R> next = new CompletionPromise<>(eventLoop);
+    addListener(
+        promise -> {
+          Object result = this.result;
+          if (result instanceof CauseHolder) {
+            next.tryFailure(((CauseHolder) result).cause);
+            return;
+          }
+          try {
+            Promise<R> composed = checkNotNull(fn.apply(valueOf(result)), "composed");
+            composed.addListener(
+                p -> {
+                  if (p.isSuccess()) {
+                    next.trySuccess(composed.get());
+                    return;
+                  }
+                  next.tryFailure(p.cause());
+                });
+          } catch (Throwable t) {
+            next.tryFailure(t);
+          }
+        });
+    return next;
+  }
+
+  @Override
+  public Promise<Void> thenAccept(Consumer<? super V> action) {
+    checkNotNull(action, "action");
+
+    return thenApply(
+        value -> {
+          action.accept(value);
+          return null;
+        });
+  }
+
+  @Override
+  public Promise<V> exceptionally(Function<Throwable, ? extends V> fn) {
+    checkNotNull(fn, "fn");
+
+    CompletionPromise<V> next = new CompletionPromise<>(eventLoop);
+    addListener(
+        promise -> {
+          Object result = this.result;
+          if (!(result instanceof CauseHolder)) {
+            next.trySuccess(valueOf(result));
+            return;
+          }
+          try {
+            next.trySuccess(fn.apply(((CauseHolder) result).cause));
+          } catch (Throwable t) {
+            next.tryFailure(t);
+          }
+        });
+    return next;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <V> Promise<List<V>> all(
+      EventLoop eventLoop, List<? extends Promise<? extends V>> promises) {
+    checkNotNull(promises, "promises");
+
+    CompletionPromise<List<V>> all = new CompletionPromise<>(eventLoop);
+    if (promises.isEmpty()) {
+      all.trySuccess(Arrays.asList());
+      return all;
+    }
+    Object[] values = new Object[promises.size()];
+    AtomicInteger remaining = new AtomicInteger(promises.size());
+    int i = 0;
+    for (Promise<? extends V> promise : promises) {
+      int index = i++;
+      promise.addListener(
+          p -> {
+            if (!p.isSuccess()) {
+              all.tryFailure(p.cause());
+              return;
+            }
+            values[index] = promise.get();
+            if (remaining.decrementAndGet() == 0) {
+              all.trySuccess((List<V>) Arrays.asList(values));
+            }
+          });
+    }
+    return all;
+  }
+
+  static <V> Promise<V> any(
+      EventLoop eventLoop, Collection<? extends Promise<? extends V>> promises) {
+    checkNotNull(promises, "promises");
+    if (promises.isEmpty()) {
+      throw new IllegalArgumentException("promises: empty");
+    }
+
+    CompletionPromise<V> any = new CompletionPromise<>(eventLoop);
+    AtomicInteger remaining = new AtomicInteger(promises.size());
+    for (Promise<? extends V> promise : promises) {
+      promise.addListener(
+          p -> {
+            if (p.isSuccess()) {
+              any.trySuccess(promise.get());
+              return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+              any.tryFailure(p.cause());
+            }
+          });
+    }
+    return any;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V valueOf(Object result) {
+    return result == EMPTY_RESULT ? null : (V) result;
+  }
+
+  @Override
+  public Promise<V> await(long timeout, TimeUnit unit) throws InterruptedException {
+    checkPositiveOrZero(timeout, "timeout");
+
+    await0(unit.toNanos(timeout), true);
+    return this;
+  }
+
+  @Override
+  public Promise<V> await() throws InterruptedException {
+    await0(0, false);
+    return this;
+  }
+
+  private void await0(long timeoutNanos, boolean timed) throws InterruptedException {
+    if (isDone()) {
+      return;
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException(toString());
+    }
+    for (int i = 0; i < AWAIT_SPINS; i++) {
+      if (isDone()) {
+        return;
+      }
+    }
+
+    long deadline = timed ? System.nanoTime() + timeoutNanos : 0;
+    Waiter waiter = new Waiter(Thread.currentThread());
+    try {
+      while (true) {
+        waiter.next = waiters;
+        if (waitersUpdater.compareAndSet(this, waiter.next, waiter)) {
+          break;
+        }
+      }
+      // The completing thread publishes the result before it takes the waiters, so either it
+      // sees our waiter, or we see the result here.
+      while (!isDone()) {
+        if (!timed) {
+          LockSupport.park(this);
+        } else {
+          long timeLeft = deadline - System.nanoTime();
+          if (timeLeft <= 0) {
+            return;
+          }
+          LockSupport.parkNanos(this, timeLeft);
+        }
+        if (Thread.interrupted()) {
+          throw new InterruptedException(toString());
+        }
+      }
+    } finally {
+      waiter.thread = null;
+      removeWaiters();
+    }
+  }
+
+  /** Unlinks the waiters which gave up, so timed out awaits do not pile up on a pending promise. */
+  private void removeWaiters() {
+    retry:
+    while (true) {
+      Waiter prev = null;
+      for (Waiter current = waiters; current != null; current = current.next) {
+        if (current.thread != null) {
+          prev = current;
+        } else if (prev != null) {
+          prev.next = current.next;
+          if (prev.thread == null) {
+            continue retry;
+          }
+        } else if (!waitersUpdater.compareAndSet(this, current, current.next)) {
+          continue retry;
+        }
+      }
+      return;
+    }
+  }
+
+  private void wakeUpWaiters() {
+    Waiter waiter = waitersUpdater.getAndSet(this, null);
+    while (waiter != null) {
+      Thread thread = waiter.thread;
+      if (thread != null) {
+        waiter.thread = null;
+        LockSupport.unpark(thread);
+      }
+      waiter = waiter.next;
+    }
+  }
+
+  @Override
+  public Promise<V> setSuccess(V result) {
+    if (!trySuccess(result)) {
+      throw new IllegalStateException("Task already complete: " + this);
+    }
+    return this;
+  }
+
+  @Override
+  public Promise<V> setFailure(Throwable cause) {
+    if (!tryFailure(cause)) {
+      throw new IllegalStateException("Task already complete: " + this);
+    }
+    return this;
+  }
+
+  protected final boolean trySuccess(V result) {
+    return complete(result == null ? EMPTY_RESULT : result);
+  }
+
+  protected final boolean tryFailure(Throwable cause) {
+    return complete(new CauseHolder(checkNotNull(cause, "cause")));
+  }
+
+  private boolean complete(Object value) {
+    if (!resultUpdater.compareAndSet(this, null, value)) {
+      return false;
+    }
+    if (waiters != null) {
+      wakeUpWaiters();
+    }
+    notifyListeners();
+    return true;
+  }
+
+  @Override
+  public Throwable cause() {
+    Object result = this.result;
+    return result instanceof CauseHolder ? ((CauseHolder) result).cause : null;
+  }
+
+  /**
+   * Cancels this promise if it is not done yet. A cancelled task is not run, but a task which is
+   * already running is never interrupted, whatever {@code mayInterruptIfRunning} is.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return tryFailure(new StacklessCancellationException());
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return cause() instanceof CancellationException;
+  }
+
+  @Override
+  public boolean isDone() {
+    return result != null;
+  }
+
+  @Override
+  public V get() throws InterruptedException, ExecutionException {
+    await();
+    return report();
+  }
+
+  @Override
+  public V get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (!await(timeout, unit).isDone()) {
+      throw new TimeoutException();
+    }
+    return report();
+  }
+
+  private V report() throws ExecutionException {
+    Object result = this.result;
+    if (!(result instanceof CauseHolder)) {
+      return valueOf(result);
+    }
+    Throwable cause = ((CauseHolder) result).cause;
+    if (cause instanceof CancellationException) {
+      throw (CancellationException) cause;
+    }
+    throw new ExecutionException(cause);
+  }
+
+  protected EventLoop eventLoop() {
+    return eventLoop;
+  }
+
+  private static final class CauseHolder {
+
+    private final Throwable cause;
+
+    CauseHolder(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  private static final class Waiter {
+
+    volatile Thread thread;
+    volatile Waiter next;
+
+    Waiter(Thread thread) {
+      this.thread = thread;
+    }
+  }
+
+  /** Cancelling is frequent for timeouts, so skip filling the stack trace which nobody reads. */
+  private static final class StacklessCancellationException extends CancellationException {
+
+    private static final long serialVersionUID = -2974906711413716191L;
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+}
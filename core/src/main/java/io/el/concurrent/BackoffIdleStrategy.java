@@ -0,0 +1,66 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkPositive;
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link IdleStrategy} that spins, then yields, then parks the thread with an exponentially
+ * growing period. The park period starts at {@code minParkNanos} and doubles up to {@code
+ * maxParkNanos}, but never exceeds the delay of the next scheduled task.
+ */
+public final class BackoffIdleStrategy implements IdleStrategy {
+
+  private static final int DEFAULT_MAX_SPINS = 10;
+  private static final int DEFAULT_MAX_YIELDS = 5;
+  private static final long DEFAULT_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+  private static final long DEFAULT_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final int maxSpins;
+  private final int maxYields;
+  private final long minParkNanos;
+  private final long maxParkNanos;
+  private int spins;
+  private int yields;
+  private long parkNanos;
+
+  public BackoffIdleStrategy() {
+    this(DEFAULT_MAX_SPINS, DEFAULT_MAX_YIELDS, DEFAULT_MIN_PARK_NANOS, DEFAULT_MAX_PARK_NANOS);
+  }
+
+  public BackoffIdleStrategy(int maxSpins, int maxYields, long minParkNanos, long maxParkNanos) {
+    this.maxSpins = (int) checkPositiveOrZero(maxSpins, "maxSpins");
+    this.maxYields = (int) checkPositiveOrZero(maxYields, "maxYields");
+    this.minParkNanos = checkPositive(minParkNanos, "minParkNanos");
+    this.maxParkNanos = checkPositive(maxParkNanos, "maxParkNanos");
+    if (minParkNanos > maxParkNanos) {
+      throw new IllegalArgumentException(
+          "minParkNanos: " + minParkNanos + " (expected: <= maxParkNanos " + maxParkNanos + ")");
+    }
+    this.parkNanos = minParkNanos;
+  }
+
+  @Override
+  public void idle(long maxParkNanos) {
+    if (spins < maxSpins) {
+      spins += 1;
+      return;
+    }
+    if (yields < maxYields) {
+      yields += 1;
+      Thread.yield();
+      return;
+    }
+    LockSupport.parkNanos(maxParkNanos < 0 ? parkNanos : Math.min(parkNanos, maxParkNanos));
+    parkNanos = Math.min(parkNanos << 1, this.maxParkNanos);
+  }
+
+  @Override
+  public void reset() {
+    spins = 0;
+    yields = 0;
+    parkNanos = minParkNanos;
+  }
+}
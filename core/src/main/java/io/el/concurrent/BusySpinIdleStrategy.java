@@ -0,0 +1,18 @@
+package io.el.concurrent;
+
+/**
+ * An {@link IdleStrategy} that never gives up the CPU. It gives the lowest latency at the cost of
+ * keeping one core busy per event loop, even when there is no load.
+ */
+public final class BusySpinIdleStrategy implements IdleStrategy {
+
+  @Override
+  public void idle(long maxParkNanos) {
+    // NO-OP
+  }
+
+  @Override
+  public void reset() {
+    // NO-OP
+  }
+}
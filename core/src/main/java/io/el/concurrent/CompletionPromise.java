@@ -0,0 +1,18 @@
+package io.el.concurrent;
+
+/**
+ * A {@link Promise} which has no task to run, and only signals the completion of work done
+ * elsewhere. It is completed by its user with {@link #setSuccess(Object)} or {@link
+ * #setFailure(Throwable)}, and {@link #run()} does nothing.
+ */
+public class CompletionPromise<V> extends AbstractPromise<V> {
+
+  public CompletionPromise(EventLoop eventLoop) {
+    super(eventLoop);
+  }
+
+  @Override
+  public void run() {
+    // Nothing to run, the promise is completed by its user.
+  }
+}
@@ -1,40 +1,134 @@
 package io.el.concurrent;
 
+import static io.el.internal.ObjectUtil.checkNotNull;
+
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/** Creates the {@link EventLoopChooser} of the given {@link Policy}. */
 public class DefaultEventLoopChooserFactory implements EventLoopChooserFactory {
 
+  private final Policy policy;
+
+  public DefaultEventLoopChooserFactory() {
+    this(Policy.ROUND_ROBIN);
+  }
+
+  public DefaultEventLoopChooserFactory(Policy policy) {
+    this.policy = checkNotNull(policy, "policy");
+  }
+
   @Override
   public EventLoopChooser newChooser(List<EventLoop> loops) {
-    return new DefaultEventLoopChooser(loops);
+    EventLoop[] array = loops.toArray(new EventLoop[0]);
+    switch (policy) {
+      case LEAST_PENDING_TASKS:
+        return new LeastPendingTasksChooser(array);
+      case POWER_OF_TWO_CHOICES:
+        return new PowerOfTwoChoicesChooser(array);
+      default:
+        if (isPowerOfTwo(array.length)) {
+          return new PowerOfTwoRoundRobinChooser(array);
+        }
+        return new RoundRobinChooser(array);
+    }
+  }
+
+  private static boolean isPowerOfTwo(int val) {
+    return (val & -val) == val;
+  }
+
+  /** How a chooser spreads the work across the event loops. */
+  public enum Policy {
+    /** Takes the event loops in turn, the cheapest choice. */
+    ROUND_ROBIN,
+    /** Takes the event loop with the fewest pending tasks, scanning all of them on every choice. */
+    LEAST_PENDING_TASKS,
+    /**
+     * Takes the one with fewer pending tasks of two random event loops, which spreads the load
+     * almost as well as {@link #LEAST_PENDING_TASKS} at a constant cost.
+     */
+    POWER_OF_TWO_CHOICES
+  }
+
+  private static final class PowerOfTwoRoundRobinChooser implements EventLoopChooser {
+
+    private final AtomicInteger idx = new AtomicInteger();
+    private final EventLoop[] loops;
+
+    private PowerOfTwoRoundRobinChooser(EventLoop[] loops) {
+      this.loops = loops;
+    }
+
+    @Override
+    public EventLoop next() {
+      return loops[idx.getAndIncrement() & loops.length - 1];
+    }
   }
 
-  private static final class DefaultEventLoopChooser implements EventLoopChooser {
+  private static final class RoundRobinChooser implements EventLoopChooser {
 
-    private final List<EventLoop> loops;
+    private final AtomicInteger idx = new AtomicInteger();
+    private final EventLoop[] loops;
 
-    private DefaultEventLoopChooser(List<EventLoop> loops) {
+    private RoundRobinChooser(EventLoop[] loops) {
       this.loops = loops;
     }
 
     @Override
     public EventLoop next() {
-      return loops.get(new RoundRobin(loops.size()).next());
+      return loops[Math.abs(idx.getAndIncrement() % loops.length)];
     }
   }
 
-  private static class RoundRobin {
+  private static final class LeastPendingTasksChooser implements EventLoopChooser {
 
-    private final AtomicInteger idx = new AtomicInteger(-1);
-    private final int total;
+    private final AtomicInteger idx = new AtomicInteger();
+    private final EventLoop[] loops;
 
-    public RoundRobin(int total) {
-      this.total = total;
+    private LeastPendingTasksChooser(EventLoop[] loops) {
+      this.loops = loops;
     }
 
-    public int next() {
-      return this.idx.incrementAndGet() % this.total;
+    @Override
+    public EventLoop next() {
+      // Start the scan at a rotating position, so ties do not always go to the first loop.
+      int start = Math.abs(idx.getAndIncrement() % loops.length);
+      EventLoop chosen = loops[start];
+      int fewest = chosen.metrics().pendingTasks();
+      for (int i = 1; i < loops.length && fewest > 0; i++) {
+        EventLoop loop = loops[(start + i) % loops.length];
+        int pending = loop.metrics().pendingTasks();
+        if (pending < fewest) {
+          chosen = loop;
+          fewest = pending;
+        }
+      }
+      return chosen;
+    }
+  }
+
+  private static final class PowerOfTwoChoicesChooser implements EventLoopChooser {
+
+    private final EventLoop[] loops;
+
+    private PowerOfTwoChoicesChooser(EventLoop[] loops) {
+      this.loops = loops;
+    }
+
+    @Override
+    public EventLoop next() {
+      if (loops.length == 1) {
+        return loops[0];
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int first = random.nextInt(loops.length);
+      // Pick a second loop other than the first one.
+      int second = (first + 1 + random.nextInt(loops.length - 1)) % loops.length;
+      EventLoop a = loops[first];
+      EventLoop b = loops[second];
+      return b.metrics().pendingTasks() < a.metrics().pendingTasks() ? b : a;
     }
   }
 }
@@ -1,11 +1,13 @@
 package io.el.concurrent;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /** A {@code EventLoop} represents the runner for running asynchronous computation */
-public interface EventLoop extends ExecutorService {
+public interface EventLoop extends ScheduledExecutorService {
 
   /**
    * Returns {@code true} if current thread is running for {@link EventLoop}.
@@ -23,6 +25,15 @@ public interface EventLoop extends ExecutorService {
    */
   boolean shutdownGracefully(long timeout, TimeUnit unit);
 
+  /**
+   * Attempts to terminate thread after a quiet period. Unlike {@link #shutdownGracefully(long,
+   * TimeUnit)}, {@link EventLoop} keeps accepting and running tasks until none has run for {@code
+   * quietPeriod}, or {@code timeout} elapsed.
+   *
+   * @return {@code true} if the {@link EventLoop} terminates without exception.
+   */
+  boolean shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit);
+
   /**
    * Check if event loop state is ShuttindDown.
    *
@@ -30,13 +41,76 @@ public interface EventLoop extends ExecutorService {
    */
   boolean isShuttingDown();
 
+  /**
+   * Returns the promise which succeeds when this event loop terminated, that is when its thread
+   * finished running tasks and exited. Its listeners are notified in the thread which completes it.
+   */
+  Promise<?> terminationPromise();
+
   @Override
   <V> Promise<V> submit(Callable<V> task);
 
   @Override
   Promise<?> submit(Runnable task);
 
+  /** Returns the statistics of this event loop, which can be read from any thread. */
+  EventLoopMetrics metrics();
+
+  /**
+   * Adds {@code task} to the task queue like {@link #execute(Runnable)}, but does not wake the
+   * event loop up for it. The task runs with the next batch the event loop runs for any other
+   * reason, so use it only for work which can wait.
+   */
+  void lazyExecute(Runnable task);
+
+  /**
+   * Adds all {@code tasks} to the task queue in one operation, keeping their order, and wakes the
+   * event loop up at most once. Either all of them are accepted or a {@link
+   * java.util.concurrent.RejectedExecutionException} is thrown, unless the event loop hands the
+   * tasks which do not fit to a rejection policy, like {@link
+   * SingleThreadEventLoop#rejectionPolicy(RejectionPolicy)}.
+   */
+  void executeAll(Collection<? extends Runnable> tasks);
+
+  /** Same as {@link #executeAll(Collection)}. */
+  void executeAll(Runnable... tasks);
+
+  /**
+   * Submits all {@code tasks} as one batch like {@link #executeAll(Collection)}. The returned
+   * promise succeeds with their results in order, or fails with the first failure.
+   */
+  <V> Promise<List<V>> submitAll(Collection<? extends Callable<V>> tasks);
+
+  @Override
+  <T> Promise<T> submit(Runnable task, T result);
+
+  /**
+   * Submits all {@code tasks} and returns a promise which succeeds with the first result, or fails
+   * if all of them fail. The tasks left are cancelled once the promise is done.
+   */
+  <V> Promise<V> submitAny(Collection<? extends Callable<V>> tasks);
+
+  @Override
   ScheduledPromise<?> schedule(Runnable command, long delay, TimeUnit unit);
 
+  @Override
   <V> ScheduledPromise<V> schedule(Callable<V> command, long delay, TimeUnit unit);
+
+  /**
+   * Runs {@code command} first after {@code initialDelay}, then every {@code period} counted from
+   * the previous deadline. The same {@link ScheduledPromise} is re-armed for every run, and it
+   * completes only if {@code command} throws or the promise is cancelled.
+   */
+  @Override
+  ScheduledPromise<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit);
+
+  /**
+   * Runs {@code command} first after {@code initialDelay}, then {@code delay} after each run
+   * finished. The same {@link ScheduledPromise} is re-armed for every run, and it completes only if
+   * {@code command} throws or the promise is cancelled.
+   */
+  @Override
+  ScheduledPromise<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit);
 }
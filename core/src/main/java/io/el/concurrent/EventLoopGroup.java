@@ -1,6 +1,8 @@
 package io.el.concurrent;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -22,6 +24,12 @@ public interface EventLoopGroup extends ExecutorService, Iterable<EventLoop> {
    */
   boolean shutdownGracefully(long timeout, TimeUnit unit);
 
+  /**
+   * Attempts to terminate all children after a quiet period, see {@link
+   * EventLoop#shutdownGracefully(long, long, TimeUnit)}.
+   */
+  boolean shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit);
+
   /**
    * Check if event loops are shutting down.
    *
@@ -29,6 +37,15 @@ public interface EventLoopGroup extends ExecutorService, Iterable<EventLoop> {
    */
   boolean isShuttingDown();
 
+  /** Returns the promise which succeeds when all of its {@link EventLoop}s terminated. */
+  Promise<?> terminationPromise();
+
+  /**
+   * Returns the statistics of all its {@link EventLoop}s together, which can be read from any
+   * thread.
+   */
+  EventLoopMetrics metrics();
+
   /** Submit task to one of its EventLoop. {@link EventLoopGroup} just delegate task it receive. */
   @Override
   <V> Promise<V> submit(Callable<V> task);
@@ -36,4 +53,29 @@ public interface EventLoopGroup extends ExecutorService, Iterable<EventLoop> {
   /** Submit task to one of its EventLoop. {@link EventLoopGroup} just delegate task it receive. */
   @Override
   Promise<?> submit(Runnable task);
+
+  /** Submit task to one of its EventLoop. {@link EventLoopGroup} just delegate task it receive. */
+  @Override
+  <T> Promise<T> submit(Runnable task, T result);
+
+  /**
+   * Submits {@code tasks} across its EventLoops and returns a promise which succeeds with the first
+   * result, or fails if all of them fail. The tasks left are cancelled once the promise is done.
+   */
+  <V> Promise<V> submitAny(Collection<? extends Callable<V>> tasks);
+
+  /**
+   * Splits {@code tasks} into one batch per child and submits each batch with {@link
+   * EventLoop#executeAll(Collection)}.
+   */
+  void executeAll(Collection<? extends Runnable> tasks);
+
+  /** Same as {@link #executeAll(Collection)}. */
+  void executeAll(Runnable... tasks);
+
+  /**
+   * Splits {@code tasks} into one batch per child like {@link #executeAll(Collection)}. The
+   * returned promise succeeds with their results in order, or fails with the first failure.
+   */
+  <V> Promise<List<V>> submitAll(Collection<? extends Callable<V>> tasks);
 }
@@ -0,0 +1,74 @@
+package io.el.concurrent;
+
+import io.el.internal.Histogram;
+import java.util.List;
+
+/**
+ * Sums up the {@link EventLoopMetrics} of all event loops of a group every time it is read, so it
+ * never holds values of its own.
+ */
+class EventLoopGroupMetrics implements EventLoopMetrics {
+
+  private final List<EventLoop> children;
+
+  EventLoopGroupMetrics(List<EventLoop> children) {
+    this.children = children;
+  }
+
+  @Override
+  public int pendingTasks() {
+    return children.stream().mapToInt(c -> c.metrics().pendingTasks()).sum();
+  }
+
+  @Override
+  public int pendingTasks(Priority priority) {
+    return children.stream().mapToInt(c -> c.metrics().pendingTasks(priority)).sum();
+  }
+
+  @Override
+  public int pendingScheduledTasks() {
+    return children.stream().mapToInt(c -> c.metrics().pendingScheduledTasks()).sum();
+  }
+
+  @Override
+  public long droppedTasks() {
+    return children.stream().mapToLong(c -> c.metrics().droppedTasks()).sum();
+  }
+
+  @Override
+  public long executedTasks() {
+    return children.stream().mapToLong(c -> c.metrics().executedTasks()).sum();
+  }
+
+  @Override
+  public long stolenTasks() {
+    return children.stream().mapToLong(c -> c.metrics().stolenTasks()).sum();
+  }
+
+  /** Returns the average busy ratio of the event loops. */
+  @Override
+  public double busyRatio() {
+    return children.stream().mapToDouble(c -> c.metrics().busyRatio()).average().orElse(0);
+  }
+
+  @Override
+  public Histogram queueingDelay() {
+    Histogram histogram = new Histogram();
+    children.forEach(c -> histogram.add(c.metrics().queueingDelay()));
+    return histogram;
+  }
+
+  @Override
+  public Histogram runTime() {
+    Histogram histogram = new Histogram();
+    children.forEach(c -> histogram.add(c.metrics().runTime()));
+    return histogram;
+  }
+
+  @Override
+  public Histogram timerLateness() {
+    Histogram histogram = new Histogram();
+    children.forEach(c -> histogram.add(c.metrics().timerLateness()));
+    return histogram;
+  }
+}
@@ -0,0 +1,50 @@
+package io.el.concurrent;
+
+import io.el.internal.Histogram;
+
+/**
+ * Statistics of an {@link EventLoop}, or of all event loops of an {@link EventLoopGroup}. Every
+ * method can be called from any thread, and reading never stalls the event loop. Values read while
+ * the event loop is running are approximate.
+ */
+public interface EventLoopMetrics {
+
+  /** Returns the number of tasks waiting in the task queue, all lanes together. */
+  int pendingTasks();
+
+  /** Returns the number of tasks waiting in the lane of {@code priority}. */
+  int pendingTasks(Priority priority);
+
+  /** Returns the number of scheduled tasks which are not due yet. */
+  int pendingScheduledTasks();
+
+  /** Returns the number of tasks dropped by a {@link RejectionPolicy}. */
+  long droppedTasks();
+
+  /** Returns the number of tasks run so far, scheduled tasks included. */
+  long executedTasks();
+
+  /** Returns the number of {@link StealableTask}s this event loop stole from its siblings. */
+  long stolenTasks();
+
+  /**
+   * Returns the share of time the event loop spent outside of its {@link IdleStrategy} since it
+   * started, between {@code 0} and {@code 1}.
+   */
+  double busyRatio();
+
+  /**
+   * Returns the histogram of nanoseconds from adding a task to the task queue until it started to
+   * run. Recorded only while task timings are enabled.
+   */
+  Histogram queueingDelay();
+
+  /** Returns the histogram of task run times in nanoseconds, recorded while timings are enabled. */
+  Histogram runTime();
+
+  /**
+   * Returns the histogram of nanoseconds between the deadline of a scheduled task and the moment it
+   * was picked up, recorded while timings are enabled.
+   */
+  Histogram timerLateness();
+}
@@ -0,0 +1,234 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkPositive;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TimerQueue} backed by a hashed timing wheel, for loops which keep a lot of coarse
+ * timeouts.
+ *
+ * <p>The wheel has {@code wheelSize} buckets, and each bucket covers {@code tickNanos}. A scheduled
+ * promise due within one rotation of the wheel is linked into the bucket of its tick, so adding and
+ * removing it costs {@code O(1)}. A scheduled promise due further away is kept in a {@link
+ * HeapTimerQueue} instead.
+ *
+ * <p>A scheduled promise never fires before its deadline. Within the same tick the promises are
+ * returned in the order they were added, not in the order of their deadlines.
+ *
+ * <p>The wheel never reads the clock. It only moves forward to the time given to {@link
+ * #poll(long)}, so it follows whatever clock its event loop uses.
+ */
+public final class HashedWheelTimerQueue implements TimerQueue {
+
+  private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final int DEFAULT_WHEEL_SIZE = 4096;
+
+  private final long tickNanos;
+  private final int mask;
+  private final ScheduledPromise<?>[] heads;
+  private final ScheduledPromise<?>[] tails;
+  private final HeapTimerQueue overflow = new HeapTimerQueue();
+  // The first tick whose bucket may still hold scheduled promises, meaningful while the wheel is
+  // not empty
+  private long processedTick;
+  private int wheelCount;
+  private long nextDeadlineNanos = -1;
+  private boolean nextDeadlineValid = true;
+
+  public HashedWheelTimerQueue() {
+    this(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+  }
+
+  /** Creates a wheel of {@code wheelSize} buckets, rounded up to the next power of two. */
+  public HashedWheelTimerQueue(long tickNanos, int wheelSize) {
+    this.tickNanos = checkPositive(tickNanos, "tickNanos");
+    checkPositive(wheelSize, "wheelSize");
+    int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+    this.mask = size - 1;
+    this.heads = new ScheduledPromise<?>[size];
+    this.tails = new ScheduledPromise<?>[size];
+  }
+
+  @Override
+  public void add(ScheduledPromise<?> promise) {
+    if (promise.timerBucket != ScheduledPromise.NOT_IN_BUCKET) {
+      throw new IllegalArgumentException("Scheduled promise already in the wheel: " + promise);
+    }
+    long deadlineNanos = promise.deadlineNanos();
+    long tick = deadlineNanos / tickNanos;
+    if (wheelCount == 0) {
+      // Nothing before this tick is in the wheel, and no poll is due before it either.
+      processedTick = tick;
+    }
+    // A tick the wheel passed already, or one beyond its rotation, goes to the heap.
+    if (tick < processedTick || tick - processedTick > mask) {
+      overflow.add(promise);
+    } else {
+      link(promise, (int) (tick & mask));
+    }
+    if (nextDeadlineValid && (nextDeadlineNanos == -1 || deadlineNanos < nextDeadlineNanos)) {
+      nextDeadlineNanos = deadlineNanos;
+    }
+  }
+
+  @Override
+  public boolean remove(ScheduledPromise<?> promise) {
+    if (promise.timerBucket == ScheduledPromise.NOT_IN_BUCKET) {
+      if (!overflow.remove(promise)) {
+        return false;
+      }
+    } else {
+      unlink(promise);
+    }
+    if (promise.deadlineNanos() == nextDeadlineNanos) {
+      nextDeadlineValid = false;
+    }
+    return true;
+  }
+
+  @Override
+  public ScheduledPromise<?> poll(long nanoTime) {
+    ScheduledPromise<?> promise = overflow.poll(nanoTime);
+    if (promise == null) {
+      promise = pollWheel(nanoTime);
+    }
+    if (promise != null && promise.deadlineNanos() == nextDeadlineNanos) {
+      nextDeadlineValid = false;
+    }
+    return promise;
+  }
+
+  private ScheduledPromise<?> pollWheel(long nanoTime) {
+    long currentTick = nanoTime / tickNanos;
+    while (processedTick <= currentTick) {
+      if (wheelCount == 0) {
+        return null;
+      }
+      ScheduledPromise<?> head = heads[(int) (processedTick & mask)];
+      if (processedTick < currentTick) {
+        // Every scheduled promise in a passed bucket is due.
+        if (head != null) {
+          unlink(head);
+          return head;
+        }
+        processedTick += 1;
+        continue;
+      }
+      for (ScheduledPromise<?> p = head; p != null; p = p.timerNext) {
+        if (p.deadlineNanos() - nanoTime <= 0) {
+          unlink(p);
+          return p;
+        }
+      }
+      return null;
+    }
+    return null;
+  }
+
+  @Override
+  public int purgeCancelled() {
+    int purged = overflow.purgeCancelled();
+    for (int i = 0; i <= mask && wheelCount > 0; i++) {
+      ScheduledPromise<?> p = heads[i];
+      while (p != null) {
+        ScheduledPromise<?> next = p.timerNext;
+        if (p.isCancelled()) {
+          unlink(p);
+          purged += 1;
+        }
+        p = next;
+      }
+    }
+    if (purged > 0) {
+      nextDeadlineValid = false;
+    }
+    return purged;
+  }
+
+  @Override
+  public long nextDeadlineNanos() {
+    if (!nextDeadlineValid) {
+      nextDeadlineNanos = findNextDeadlineNanos();
+      nextDeadlineValid = true;
+    }
+    return nextDeadlineNanos;
+  }
+
+  private long findNextDeadlineNanos() {
+    long deadlineNanos = overflow.nextDeadlineNanos();
+    if (wheelCount == 0) {
+      return deadlineNanos;
+    }
+    for (int i = 0; i <= mask; i++) {
+      ScheduledPromise<?> head = heads[(int) ((processedTick + i) & mask)];
+      if (head == null) {
+        continue;
+      }
+      // Every promise in a later bucket is due after the promises in this one.
+      for (ScheduledPromise<?> p = head; p != null; p = p.timerNext) {
+        if (deadlineNanos == -1 || p.deadlineNanos() < deadlineNanos) {
+          deadlineNanos = p.deadlineNanos();
+        }
+      }
+      break;
+    }
+    return deadlineNanos;
+  }
+
+  @Override
+  public int size() {
+    return wheelCount + overflow.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i <= mask && wheelCount > 0; i++) {
+      while (heads[i] != null) {
+        unlink(heads[i]);
+      }
+    }
+    overflow.clear();
+    nextDeadlineNanos = -1;
+    nextDeadlineValid = true;
+  }
+
+  private void link(ScheduledPromise<?> promise, int bucket) {
+    ScheduledPromise<?> tail = tails[bucket];
+    promise.timerBucket = bucket;
+    promise.timerPrev = tail;
+    promise.timerNext = null;
+    if (tail == null) {
+      heads[bucket] = promise;
+    } else {
+      tail.timerNext = promise;
+    }
+    tails[bucket] = promise;
+    wheelCount += 1;
+  }
+
+  private void unlink(ScheduledPromise<?> promise) {
+    int bucket = promise.timerBucket;
+    ScheduledPromise<?> prev = promise.timerPrev;
+    ScheduledPromise<?> next = promise.timerNext;
+    if (prev == null) {
+      heads[bucket] = next;
+    } else {
+      prev.timerNext = next;
+    }
+    if (next == null) {
+      tails[bucket] = prev;
+    } else {
+      next.timerPrev = prev;
+    }
+    promise.timerBucket = ScheduledPromise.NOT_IN_BUCKET;
+    promise.timerPrev = null;
+    promise.timerNext = null;
+    wheelCount -= 1;
+  }
+}
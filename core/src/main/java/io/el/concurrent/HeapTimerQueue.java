@@ -0,0 +1,75 @@
+package io.el.concurrent;
+
+import io.el.internal.DefaultPriorityQueue;
+import io.el.internal.PriorityQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link TimerQueue} backed by a binary heap. Adding and removing a scheduled promise costs
+ * {@code O(log n)}, and the promises are returned in the exact order of their deadlines.
+ */
+public final class HeapTimerQueue implements TimerQueue {
+
+  private static final int INITIAL_QUEUE_CAPACITY = 16;
+  private static final Comparator<ScheduledPromise<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
+      ScheduledPromise::compareTo;
+
+  private final PriorityQueue<ScheduledPromise<?>> queue =
+      new DefaultPriorityQueue<>(INITIAL_QUEUE_CAPACITY, SCHEDULED_FUTURE_TASK_COMPARATOR);
+
+  @Override
+  public void add(ScheduledPromise<?> promise) {
+    queue.add(promise);
+  }
+
+  @Override
+  public boolean remove(ScheduledPromise<?> promise) {
+    return queue.removeTyped(promise);
+  }
+
+  @Override
+  public ScheduledPromise<?> poll(long nanoTime) {
+    ScheduledPromise<?> promise = queue.peek();
+    if (promise == null || promise.deadlineNanos() - nanoTime > 0) {
+      return null;
+    }
+    return queue.poll();
+  }
+
+  @Override
+  public int purgeCancelled() {
+    List<ScheduledPromise<?>> cancelled = new ArrayList<>();
+    for (ScheduledPromise<?> promise : queue) {
+      if (promise.isCancelled()) {
+        cancelled.add(promise);
+      }
+    }
+    for (ScheduledPromise<?> promise : cancelled) {
+      queue.removeTyped(promise);
+    }
+    return cancelled.size();
+  }
+
+  @Override
+  public long nextDeadlineNanos() {
+    ScheduledPromise<?> promise = queue.peek();
+    return promise == null ? -1 : promise.deadlineNanos();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    queue.clear();
+  }
+}
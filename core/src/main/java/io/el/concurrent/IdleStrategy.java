@@ -0,0 +1,19 @@
+package io.el.concurrent;
+
+/**
+ * An {@code IdleStrategy} decides what the thread of a {@link SingleThreadEventLoop} does when
+ * there is no task to run. Each event loop owns its own instance, so implementations may keep state
+ * without synchronization.
+ */
+public interface IdleStrategy {
+
+  /**
+   * Invoked when the event loop found no task to run. Implementations may spin, yield or park the
+   * current thread but must not park longer than {@code maxParkNanos}. A negative {@code
+   * maxParkNanos} means there is no scheduled task, so the thread may park until it is woken up.
+   */
+  void idle(long maxParkNanos);
+
+  /** Invoked when the event loop found a task again after idling. */
+  void reset();
+}
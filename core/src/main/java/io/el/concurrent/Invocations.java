@@ -0,0 +1,139 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Implements {@code invokeAll} and {@code invokeAny} of {@link AbstractEventLoop} and {@link
+ * AbstractEventLoopGroup} on top of their {@code submit}, waiting for timeouts with a scheduled
+ * task instead of an extra thread.
+ */
+final class Invocations {
+
+  private Invocations() {}
+
+  static <T> List<Future<T>> invokeAll(
+      Collection<? extends Callable<T>> tasks, Function<Callable<T>, Promise<T>> submitter)
+      throws InterruptedException {
+    List<Promise<T>> promises = submit(tasks, submitter);
+    try {
+      for (Promise<T> promise : promises) {
+        promise.await();
+      }
+    } catch (InterruptedException e) {
+      promises.forEach(p -> p.cancel(false));
+      throw e;
+    }
+    return new ArrayList<>(promises);
+  }
+
+  static <T> List<Future<T>> invokeAll(
+      Collection<? extends Callable<T>> tasks,
+      long timeout,
+      TimeUnit unit,
+      Function<Callable<T>, Promise<T>> submitter,
+      EventLoop timerLoop)
+      throws InterruptedException {
+    checkNotNull(unit, "unit");
+    long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+    List<Promise<T>> promises = submit(tasks, submitter);
+    // The timer cancels the work left on the event loops by the deadline. The caller still bounds
+    // its own wait, as the timer may be late on a busy event loop.
+    ScheduledPromise<?> timer =
+        timerLoop.schedule(() -> promises.forEach(p -> p.cancel(false)), timeout, unit);
+    try {
+      for (Promise<T> promise : promises) {
+        long timeLeft = deadlineNanos - System.nanoTime();
+        if (timeLeft <= 0 || !promise.await(timeLeft, TimeUnit.NANOSECONDS).isDone()) {
+          break;
+        }
+      }
+    } finally {
+      promises.forEach(p -> p.cancel(false));
+      timer.cancel(false);
+    }
+    return new ArrayList<>(promises);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Promise<T> submitAny(
+      Collection<? extends Callable<T>> tasks,
+      Function<Callable<T>, Promise<T>> submitter,
+      EventLoop resultLoop) {
+    checkNotNull(tasks, "tasks");
+    if (tasks.isEmpty()) {
+      throw new IllegalArgumentException("tasks: empty");
+    }
+    List<Promise<T>> promises = submit(tasks, submitter);
+    Promise<T> any = Promise.any(resultLoop, promises);
+    // The work left is not needed once one task succeeded, or the caller gave up.
+    any.addListener(p -> promises.forEach(promise -> promise.cancel(false)));
+    return any;
+  }
+
+  static <T> T invokeAny(
+      Collection<? extends Callable<T>> tasks,
+      Function<Callable<T>, Promise<T>> submitter,
+      EventLoop resultLoop)
+      throws InterruptedException, ExecutionException {
+    Promise<T> any = submitAny(tasks, submitter, resultLoop);
+    try {
+      return any.get();
+    } catch (InterruptedException e) {
+      any.cancel(false);
+      throw e;
+    }
+  }
+
+  static <T> T invokeAny(
+      Collection<? extends Callable<T>> tasks,
+      long timeout,
+      TimeUnit unit,
+      Function<Callable<T>, Promise<T>> submitter,
+      EventLoop resultLoop)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    checkNotNull(unit, "unit");
+    Promise<T> any = submitAny(tasks, submitter, resultLoop);
+    AtomicBoolean timedOut = new AtomicBoolean();
+    ScheduledPromise<?> timer =
+        resultLoop.schedule(
+            () -> {
+              timedOut.set(true);
+              any.cancel(false);
+            },
+            timeout,
+            unit);
+    try {
+      return any.get(timeout, unit);
+    } catch (CancellationException e) {
+      if (timedOut.get()) {
+        throw new TimeoutException();
+      }
+      throw e;
+    } finally {
+      any.cancel(false);
+      timer.cancel(false);
+    }
+  }
+
+  private static <T> List<Promise<T>> submit(
+      Collection<? extends Callable<T>> tasks, Function<Callable<T>, Promise<T>> submitter) {
+    checkNotNull(tasks, "tasks");
+    List<Promise<T>> promises = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      promises.add(submitter.apply(checkNotNull(task, "task")));
+    }
+    return promises;
+  }
+}
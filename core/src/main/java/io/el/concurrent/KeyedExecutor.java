@@ -0,0 +1,103 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs tasks serially per key and in parallel across keys, on the event loops of a group. Each key
+ * maps to one event loop with a jump consistent hash, so the tasks of a key run in the order they
+ * were added, like the tasks of a channel do. There is no queue per key and mapping a key only
+ * computes a hash, so hot keys allocate nothing and cold keys leave nothing behind.
+ *
+ * <p>An executor built over {@code n + 1} event loops maps a key to the same event loop as one
+ * built over the first {@code n} of them, except for about one key in {@code n + 1}, which maps to
+ * the new event loop. Tasks of a moved key may overtake the ones still pending on its former event
+ * loop, so let those finish before switching executors if the order matters.
+ *
+ * <p>Order holds only for tasks which stay on their event loop, so {@link StealableTask}s are not
+ * accepted. A {@link RejectionPolicy} other than {@link RejectionPolicy#abort()} and {@link
+ * RejectionPolicy#block(long, java.util.concurrent.TimeUnit)} may reorder or drop tasks of a key.
+ */
+public final class KeyedExecutor {
+
+  // From the 64-bit linear congruential generator of the jump consistent hash paper
+  private static final long JUMP_MULTIPLIER = 2862933555777941757L;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final EventLoop[] eventLoops;
+
+  /** Create an executor over {@code eventLoops}, typically an {@link EventLoopGroup}. */
+  public KeyedExecutor(Iterable<? extends EventLoop> eventLoops) {
+    checkNotNull(eventLoops, "eventLoops");
+    List<EventLoop> list = new ArrayList<>();
+    for (EventLoop eventLoop : eventLoops) {
+      list.add(checkNotNull(eventLoop, "eventLoop"));
+    }
+    if (list.isEmpty()) {
+      throw new IllegalArgumentException("eventLoops: empty (expected: at least one)");
+    }
+    this.eventLoops = list.toArray(new EventLoop[0]);
+  }
+
+  /** Returns the event loop which runs the tasks of {@code key}. */
+  public EventLoop eventLoop(Object key) {
+    checkNotNull(key, "key");
+    return eventLoop(key.hashCode() * GOLDEN_RATIO);
+  }
+
+  /** Returns the event loop which runs the tasks of {@code key}, without boxing it. */
+  public EventLoop eventLoop(long key) {
+    return eventLoops[jumpHash(key, eventLoops.length)];
+  }
+
+  public void execute(Object key, Runnable task) {
+    execute(eventLoop(key), task);
+  }
+
+  public void execute(long key, Runnable task) {
+    execute(eventLoop(key), task);
+  }
+
+  public Promise<?> submit(Object key, Runnable task) {
+    return eventLoop(key).submit(checkNotStealable(task));
+  }
+
+  public <V> Promise<V> submit(Object key, Callable<V> task) {
+    return eventLoop(key).submit(checkNotNull(task, "task"));
+  }
+
+  public int size() {
+    return eventLoops.length;
+  }
+
+  private static void execute(EventLoop eventLoop, Runnable task) {
+    eventLoop.execute(checkNotStealable(task));
+  }
+
+  private static Runnable checkNotStealable(Runnable task) {
+    checkNotNull(task, "task");
+    if (task instanceof StealableTask) {
+      throw new IllegalArgumentException("stealable task can not be keyed: " + task);
+    }
+    return task;
+  }
+
+  /**
+   * Maps {@code key} to one of {@code buckets}, moving only the keys which go to the new bucket
+   * when {@code buckets} grows by one. See "A Fast, Minimal Memory, Consistent Hash Algorithm" by
+   * Lamping and Veach.
+   */
+  static int jumpHash(long key, int buckets) {
+    long bucket = -1;
+    long next = 0;
+    while (next < buckets) {
+      bucket = next;
+      key = key * JUMP_MULTIPLIER + 1;
+      next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+    }
+    return (int) bucket;
+  }
+}
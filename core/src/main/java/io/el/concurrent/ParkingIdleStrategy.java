@@ -0,0 +1,26 @@
+package io.el.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link IdleStrategy} that parks the thread until the next scheduled task is due or until a new
+ * task wakes the event loop up. An idle event loop using this strategy consumes no CPU.
+ */
+public final class ParkingIdleStrategy implements IdleStrategy {
+
+  @Override
+  public void idle(long maxParkNanos) {
+    if (maxParkNanos < 0) {
+      LockSupport.park(this);
+      return;
+    }
+    if (maxParkNanos > 0) {
+      LockSupport.parkNanos(this, maxParkNanos);
+    }
+  }
+
+  @Override
+  public void reset() {
+    // NO-OP
+  }
+}
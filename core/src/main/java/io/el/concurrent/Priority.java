@@ -0,0 +1,14 @@
+package io.el.concurrent;
+
+/**
+ * The lane a task waits in until its {@link SingleThreadEventLoop} runs it. Tasks of the same lane
+ * run in the order they were added, and {@link SingleThreadEventLoop#execute(Runnable)} adds to
+ * {@link #NORMAL}.
+ */
+public enum Priority {
+  /** Control work, such as shutdown signals, closing channels and health checks. */
+  HIGH,
+  NORMAL,
+  /** Bulk work which may wait while other lanes have tasks. */
+  LOW
+}
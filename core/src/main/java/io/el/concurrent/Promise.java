@@ -1,7 +1,11 @@
 package io.el.concurrent;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /** The result of an asynchronous operation. */
 public interface Promise<V> extends Future<V>, Runnable {
@@ -40,4 +44,50 @@ public interface Promise<V> extends Future<V>, Runnable {
    * null.
    */
   Throwable cause();
+
+  /**
+   * Returns a new promise which is completed with the result of {@code fn} applied to the value of
+   * this promise. If this promise fails, or {@code fn} throws, the returned promise fails too.
+   *
+   * <p>{@code fn} runs on the event loop of this promise, right when it completes, so chaining does
+   * not cost extra round trips through the task queue.
+   */
+  <R> Promise<R> thenApply(Function<? super V, ? extends R> fn);
+
+  /**
+   * Returns a new promise which is completed with the promise returned by {@code fn} applied to the
+   * value of this promise. If this promise fails, or {@code fn} throws, the returned promise fails
+   * too.
+   */
+  <R> Promise<R> thenCompose(Function<? super V, ? extends Promise<R>> fn);
+
+  /**
+   * Returns a new promise which is completed after {@code action} consumed the value of this
+   * promise. If this promise fails, or {@code action} throws, the returned promise fails too.
+   */
+  Promise<Void> thenAccept(Consumer<? super V> action);
+
+  /**
+   * Returns a new promise which is completed with the value of this promise, or with the result of
+   * {@code fn} applied to the cause if this promise fails.
+   */
+  Promise<V> exceptionally(Function<Throwable, ? extends V> fn);
+
+  /**
+   * Returns a promise of the given {@code eventLoop} which succeeds with the values of all {@code
+   * promises} in order, or fails as soon as one of them fails.
+   */
+  static <V> Promise<List<V>> all(
+      EventLoop eventLoop, List<? extends Promise<? extends V>> promises) {
+    return AbstractPromise.all(eventLoop, promises);
+  }
+
+  /**
+   * Returns a promise of the given {@code eventLoop} which succeeds with the value of the first
+   * succeeded one of {@code promises}, or fails with the last cause if all of them fail.
+   */
+  static <V> Promise<V> any(
+      EventLoop eventLoop, Collection<? extends Promise<? extends V>> promises) {
+    return AbstractPromise.any(eventLoop, promises);
+  }
 }
@@ -0,0 +1,90 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides what happens to a task when its lane of a {@link SingleThreadEventLoop} is full. It is
+ * called from the thread which added the task, and from the event loop thread when a task adds
+ * another one. A policy must either find the task a place or throw {@link
+ * RejectedExecutionException}.
+ */
+public interface RejectionPolicy {
+
+  /** Called when {@code task} did not fit in the lane of {@code priority} of {@code eventLoop}. */
+  void rejected(Runnable task, Priority priority, SingleThreadEventLoop eventLoop);
+
+  /**
+   * Throws {@link RejectedExecutionException}, the default. A batch of {@link
+   * SingleThreadEventLoop#executeAll(java.util.Collection)} which does not fit is rejected as a
+   * whole.
+   */
+  static RejectionPolicy abort() {
+    return AbortPolicy.INSTANCE;
+  }
+
+  /** Runs the task on the thread which added it, which slows producers down to the event loop. */
+  static RejectionPolicy callerRuns() {
+    return (task, priority, eventLoop) -> task.run();
+  }
+
+  /**
+   * Blocks the thread which added the task until the lane has room, and throws {@link
+   * RejectedExecutionException} after {@code timeout}. The event loop thread can not wait for
+   * itself, so a task it adds is rejected right away.
+   */
+  static RejectionPolicy block(long timeout, TimeUnit unit) {
+    checkNotNull(unit, "unit");
+    long timeoutNanos = unit.toNanos(checkPositiveOrZero(timeout, "timeout"));
+    // Parks in short steps, the event loop does not signal when a lane gets room.
+    long parkNanos = Math.max(1, Math.min(timeoutNanos, TimeUnit.MICROSECONDS.toNanos(100)));
+    return (task, priority, eventLoop) -> {
+      if (eventLoop.inEventLoop()) {
+        throw new RejectedExecutionException("Event loop can not wait for its own task queue");
+      }
+      long deadlineNanos = System.nanoTime() + timeoutNanos;
+      while (System.nanoTime() - deadlineNanos < 0) {
+        LockSupport.parkNanos(parkNanos);
+        if (eventLoop.isShutdown()) {
+          break;
+        }
+        if (eventLoop.offerToLane(task, priority)) {
+          return;
+        }
+      }
+      throw new RejectedExecutionException("Event loop failed to add task in time");
+    };
+  }
+
+  /**
+   * Drops the task which did not fit and counts it in {@link EventLoopMetrics#droppedTasks()}. A
+   * dropped {@link java.util.concurrent.Future} is cancelled.
+   */
+  static RejectionPolicy dropNewest() {
+    return (task, priority, eventLoop) -> eventLoop.dropTask(task);
+  }
+
+  /**
+   * Adds the task and drops the oldest one of the lane to make room, counting it in {@link
+   * EventLoopMetrics#droppedTasks()}. The event loop drops it the next time it takes from its
+   * lanes.
+   */
+  static RejectionPolicy dropOldest() {
+    return (task, priority, eventLoop) -> eventLoop.replaceOldest(task, priority);
+  }
+
+  /**
+   * Adds the task to an unbounded overflow queue of the lane. The event loop moves spilled tasks
+   * back to their lane as soon as it has room. While a lane has spilled tasks, the tasks added to
+   * it are given to this policy as well, so they queue up behind the spilled ones. Combine it with
+   * {@link SingleThreadEventLoop#watermarks(int, int, WatermarkListener)} to keep the overflow from
+   * growing without bounds.
+   */
+  static RejectionPolicy spill() {
+    return (task, priority, eventLoop) -> eventLoop.spill(task, priority);
+  }
+}
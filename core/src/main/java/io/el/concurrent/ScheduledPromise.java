@@ -4,27 +4,101 @@ import io.el.internal.PriorityQueueNode;
 import io.el.internal.Time;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-public class ScheduledPromise<V> extends DefaultPromise<V> implements PriorityQueueNode, Delayed {
+public class ScheduledPromise<V> extends DefaultPromise<V>
+    implements PriorityQueueNode, ScheduledFuture<V> {
 
-  private final long deadlineNanos;
+  static final int NOT_IN_BUCKET = -1;
+
+  // 0 for a one-shot task, > 0 for a fixed rate, < 0 for a fixed delay
+  private final long periodNanos;
+  private long deadlineNanos;
   private int queueIndex = INDEX_NOT_IN_QUEUE;
   private long id;
+  // Set by the event loop once this promise went to its timer queue, rather than waiting to be
+  // merged
+  volatile boolean inTimerQueue;
+  // Links used by HashedWheelTimerQueue, so a bucket needs no node of its own
+  int timerBucket = NOT_IN_BUCKET;
+  ScheduledPromise<?> timerPrev;
+  ScheduledPromise<?> timerNext;
 
   @SuppressWarnings("unchecked")
   public ScheduledPromise(EventLoop eventLoop, Runnable task, long deadlineNanos) {
+    this(eventLoop, task, deadlineNanos, 0);
+  }
+
+  public ScheduledPromise(EventLoop eventLoop, Callable<V> task, long deadlineNanos) {
     super(eventLoop, task);
     this.deadlineNanos = deadlineNanos;
+    this.periodNanos = 0;
   }
 
-  public ScheduledPromise(EventLoop eventLoop, Callable<V> task, long deadlineNanos) {
+  /**
+   * Create a periodic task. A positive {@code periodNanos} runs it at a fixed rate, and a negative
+   * one runs it with a fixed delay of {@code -periodNanos} between runs.
+   */
+  public ScheduledPromise(
+      EventLoop eventLoop, Runnable task, long deadlineNanos, long periodNanos) {
     super(eventLoop, task);
     this.deadlineNanos = deadlineNanos;
+    this.periodNanos = periodNanos;
+  }
+
+  @Override
+  public void run() {
+    if (periodNanos == 0) {
+      super.run();
+      return;
+    }
+    if (!eventLoop().inEventLoop() || isDone()) {
+      return;
+    }
+    try {
+      task().call();
+    } catch (Throwable t) {
+      // The task may have cancelled its own promise before it threw.
+      tryFailure(t);
+      return;
+    }
+    if (isDone()) {
+      return;
+    }
+    // Complete the promise rather than dropping it, so nobody waits for a run that never comes.
+    if (!singleThreadEventLoop().reschedulesPeriodicTasks()) {
+      cancel(false);
+      return;
+    }
+    // Re-arm this promise instead of allocating a new one for the next run.
+    if (periodNanos > 0) {
+      deadlineNanos += periodNanos;
+    } else {
+      deadlineNanos = singleThreadEventLoop().deadlineNanos(-periodNanos);
+    }
+    singleThreadEventLoop().scheduledTaskQueue().add(this);
+  }
+
+  public boolean isPeriodic() {
+    return periodNanos != 0;
+  }
+
+  /**
+   * Cancels this task and removes it from the timer queue of its event loop, right away on the
+   * event loop thread, or later by the event loop when called from other threads.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled && eventLoop() instanceof SingleThreadEventLoop) {
+      singleThreadEventLoop().removeScheduled(this);
+    }
+    return cancelled;
   }
 
-  static long deadlineNanos(long delay) {
-    long deadlineNanos = Time.currentNanos() + delay;
+  static long deadlineNanos(long nanoTime, long delay) {
+    long deadlineNanos = nanoTime + delay;
     return deadlineNanos < 0 ? Long.MAX_VALUE : deadlineNanos;
   }
 
@@ -69,7 +143,11 @@ public class ScheduledPromise<V> extends DefaultPromise<V> implements PriorityQu
 
   @Override
   public long getDelay(TimeUnit unit) {
-    return deadlineNanos() - Time.currentNanos();
+    long nanoTime =
+        eventLoop() instanceof SingleThreadEventLoop
+            ? singleThreadEventLoop().nanoTime()
+            : Time.currentNanos();
+    return unit.convert(deadlineNanos() - nanoTime, TimeUnit.NANOSECONDS);
   }
 
   private SingleThreadEventLoop singleThreadEventLoop() {
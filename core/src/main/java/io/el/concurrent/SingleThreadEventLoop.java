@@ -1,47 +1,168 @@
 package io.el.concurrent;
 
 import static io.el.internal.ObjectUtil.checkNotNull;
+import static io.el.internal.ObjectUtil.checkPositive;
 import static io.el.internal.ObjectUtil.checkPositiveOrZero;
 
-import io.el.internal.DefaultPriorityQueue;
-import io.el.internal.PriorityQueue;
+import io.el.internal.Histogram;
+import io.el.internal.MpscChunkedArrayQueue;
+import io.el.internal.MpscQueue;
+import io.el.internal.Recycler;
 import io.el.internal.Time;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public abstract class SingleThreadEventLoop extends AbstractEventLoop {
 
   private static final Logger LOGGER = LogManager.getLogger();
-  private static final int INITIAL_QUEUE_CAPACITY = 16;
+  private static final int TASK_QUEUE_CHUNK_SIZE = 1024;
+  private static final int INBOUND_TIMER_QUEUE_CHUNK_SIZE = 256;
+  private static final int DEFAULT_MAX_TASKS_PER_ITERATION = 1024;
+  private static final double DEFAULT_SCHEDULED_TASK_RATIO = 0.5;
+  // How many tasks run between two reads of the clock when a time budget is set
+  private static final int TIME_BUDGET_CHECK_INTERVAL = 64;
+  // How many tasks takeTask() hands out between two reads of the clock with a coarse clock
+  private static final int CLOCK_UPDATE_INTERVAL = 64;
+  protected static final int DEFAULT_MAX_PENDING_TASKS = Integer.MAX_VALUE;
   private static final AtomicReferenceFieldUpdater<SingleThreadEventLoop, State> stateUpdater =
       AtomicReferenceFieldUpdater.newUpdater(SingleThreadEventLoop.class, State.class, "state");
-  private static final Comparator<ScheduledPromise<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
-      ScheduledPromise::compareTo;
-  private final Queue<Runnable> taskQueue;
-  private final PriorityQueue<ScheduledPromise<?>> scheduledPromiseQueue;
+  private static final AtomicIntegerFieldUpdater<SingleThreadEventLoop> parkedUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventLoop.class, "parked");
+  private static final AtomicIntegerFieldUpdater<SingleThreadEventLoop>
+      pendingCancellationsUpdater =
+          AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventLoop.class, "pendingCancellations");
+  private static final AtomicLongFieldUpdater<SingleThreadEventLoop> cancelledTimersUpdater =
+      AtomicLongFieldUpdater.newUpdater(SingleThreadEventLoop.class, "cancelledTimers");
+  private static final AtomicReferenceFieldUpdater<SingleThreadEventLoop, Runnable>
+      runningTaskUpdater =
+          AtomicReferenceFieldUpdater.newUpdater(
+              SingleThreadEventLoop.class, Runnable.class, "runningTask");
+  private static final AtomicLongFieldUpdater<SingleThreadEventLoop> runningTaskStartNanosUpdater =
+      AtomicLongFieldUpdater.newUpdater(SingleThreadEventLoop.class, "runningTaskStartNanos");
+  private static final AtomicIntegerFieldUpdater<SingleThreadEventLoop> overflowedTasksUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventLoop.class, "overflowedTasks");
+  private static final AtomicLongFieldUpdater<SingleThreadEventLoop> droppedTasksUpdater =
+      AtomicLongFieldUpdater.newUpdater(SingleThreadEventLoop.class, "droppedTasks");
+  private static final AtomicIntegerFieldUpdater<SingleThreadEventLoop> overloadedUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventLoop.class, "overloaded");
+  private static final double DEFAULT_CANCELLED_TIMER_PURGE_RATIO = 0.25;
+  private static final Priority[] PRIORITIES = Priority.values();
+  // The NORMAL lane, which all tasks without a priority go to
+  private final MpscQueue<Runnable> taskQueue;
+  // One task queue per Priority, in the order of their ordinals
+  private final MpscQueue<Runnable>[] lanes;
+  // Tasks spilled or displaced from a full lane, moved back to it by the event loop
+  private final Queue<Runnable>[] overflows;
+  private final AtomicIntegerArray overflowSizes = new AtomicIntegerArray(PRIORITIES.length);
+  // Oldest tasks of each lane the event loop has to drop, one per task which displaced them
+  private final AtomicIntegerArray pendingDrops = new AtomicIntegerArray(PRIORITIES.length);
+  private final TimerQueue scheduledPromiseQueue;
+  // Scheduled from other threads, merged into the timer queue by the event loop
+  private final MpscQueue<ScheduledPromise<?>> inboundTimers =
+      new MpscChunkedArrayQueue<>(INBOUND_TIMER_QUEUE_CHUNK_SIZE);
+  private final Consumer<ScheduledPromise<?>> timerMerger = this::mergeInboundTimer;
+  // Taken from the head by this event loop, and stolen from the tail by its siblings
+  private final ConcurrentLinkedDeque<Runnable> stealableTasks = new ConcurrentLinkedDeque<>();
+  private final IdleStrategy idleStrategy;
+  private final Consumer<Runnable> taskRunner = this::safeExecute;
+  private final Histogram queueingDelay = new Histogram();
+  private final Histogram runTime = new Histogram();
+  private final Histogram timerLateness = new Histogram();
+  private final EventLoopMetrics metrics = new Metrics();
+  private final Promise<Void> terminationPromise = new TerminationPromise(this);
   private volatile Thread thread;
   private volatile State state = State.NOT_STARTED;
+  private volatile int parked;
+  // Cancelled from other threads but maybe still in the timer queue
+  private volatile int pendingCancellations;
+  private volatile long cancelledTimers;
+  private volatile long firedTimers;
+  private volatile double cancelledTimerPurgeRatio = DEFAULT_CANCELLED_TIMER_PURGE_RATIO;
+  private volatile int maxTasksPerIteration = DEFAULT_MAX_TASKS_PER_ITERATION;
+  private volatile long iterationTimeBudgetNanos;
+  private volatile double scheduledTaskRatio = DEFAULT_SCHEDULED_TASK_RATIO;
+  private volatile long taskBudgetExhaustions;
+  private volatile long timeBudgetExhaustions;
+  private volatile long scheduledTaskBudgetExhaustions;
+  private volatile boolean recordTaskTimings;
+  private volatile long executedTasks;
+  private volatile long loopStartNanos;
+  private volatile long idleNanos;
+  // When the event loop went idle, or -1 while it is busy
+  private volatile long idleStartNanos = -1;
+  private volatile StallWatchdog stallWatchdog;
+  // The task being run and when it started, only tracked while a StallWatchdog watches
+  private volatile Runnable runningTask;
+  private volatile long runningTaskStartNanos;
+  private volatile SingleThreadEventLoop[] siblings = new SingleThreadEventLoop[0];
+  private volatile long stolenTasks;
+  private boolean idling;
   private long nextTaskId;
-  private long shutdownStartNanos;
-  private long shutdownTimeoutNanos;
+  private volatile boolean coarseClock;
+  // The time read at the start of the current iteration, only used by the event loop thread
+  private long cachedNanoTime;
+  private int tasksSinceClockUpdate;
+  // Tasks run per lane in a weighted round, or null to drain the lanes in strict priority order
+  private volatile int[] laneWeights;
+  private int currentLane;
+  private int tasksFromCurrentLane;
+  private volatile RejectionPolicy rejectionPolicy = RejectionPolicy.abort();
+  // The number of tasks in all overflows
+  private volatile int overflowedTasks;
+  private volatile long droppedTasks;
+  private volatile WatermarkListener watermarkListener;
+  private volatile int lowWatermark;
+  // 0 when there are no watermarks
+  private volatile int highWatermark;
+  private volatile int overloaded;
+  private volatile ScheduledTaskPolicy scheduledTaskPolicy = ScheduledTaskPolicy.CANCEL;
+  private volatile long shutdownStartNanos;
+  private volatile long shutdownQuietPeriodNanos;
+  private volatile long shutdownTimeoutNanos;
+  // Whether tasks are still accepted while shutting down, until the quiet period ends
+  private volatile boolean acceptTasksWhileShuttingDown;
   private long lastExecutionTime;
 
   public SingleThreadEventLoop(Executor executor) {
+    this(executor, new ParkingIdleStrategy());
+  }
+
+  public SingleThreadEventLoop(Executor executor, IdleStrategy idleStrategy) {
+    this(executor, idleStrategy, DEFAULT_MAX_PENDING_TASKS);
+  }
+
+  /**
+   * Create an event loop which holds at most {@code maxPendingTasks} tasks in each lane of its task
+   * queue. When a lane is full, its {@link #rejectionPolicy(RejectionPolicy) rejection policy}
+   * decides what happens to the task.
+   */
+  public SingleThreadEventLoop(Executor executor, IdleStrategy idleStrategy, int maxPendingTasks) {
     super(executor);
-    this.taskQueue = new LinkedBlockingDeque<>(INITIAL_QUEUE_CAPACITY);
-    this.scheduledPromiseQueue =
-        new DefaultPriorityQueue<>(INITIAL_QUEUE_CAPACITY, SCHEDULED_FUTURE_TASK_COMPARATOR);
+    this.idleStrategy = checkNotNull(idleStrategy, "idleStrategy");
+    checkPositive(maxPendingTasks, "maxPendingTasks");
+    this.lanes = newLanes(maxPendingTasks);
+    this.taskQueue = lanes[Priority.NORMAL.ordinal()];
+    this.overflows = newOverflows();
+    this.scheduledPromiseQueue = newTimerQueue();
   }
 
   @Override
@@ -49,27 +170,56 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     return Thread.currentThread() == this.thread;
   }
 
+  /**
+   * Shuts down without a quiet period: tasks added from now on are rejected, and the tasks already
+   * in the task queue run until {@code timeout}.
+   */
   @Override
   public boolean shutdownGracefully(long timeout, TimeUnit unit) {
     checkNotNull(unit, "unit");
     checkPositiveOrZero(timeout, "timeout");
+    // Running until the timeout is the same as a quiet period as long as the timeout.
+    return shutdownGracefully(timeout, timeout, unit, false);
+  }
 
-    shutdownStartNanos = Time.currentNanos();
+  @Override
+  public boolean shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+    checkNotNull(unit, "unit");
+    checkPositiveOrZero(quietPeriod, "quietPeriod");
+    if (timeout < quietPeriod) {
+      throw new IllegalArgumentException(
+          "timeout: " + timeout + " (expected >= quietPeriod (" + quietPeriod + "))");
+    }
+    return shutdownGracefully(quietPeriod, timeout, unit, true);
+  }
 
+  private boolean shutdownGracefully(
+      long quietPeriod, long timeout, TimeUnit unit, boolean acceptTasks) {
     if (isShuttingDown()) {
       return true;
     }
 
+    shutdownStartNanos = Time.currentNanos();
+    shutdownQuietPeriodNanos = unit.toNanos(quietPeriod);
+    shutdownTimeoutNanos = unit.toNanos(timeout);
+    acceptTasksWhileShuttingDown = acceptTasks;
+
+    State oldState;
     while (true) {
       if (isShuttingDown()) {
         return true;
       }
-      if (stateUpdater.compareAndSet(this, state, State.SHUTTING_DOWN)) {
+      oldState = state;
+      if (stateUpdater.compareAndSet(this, oldState, State.SHUTTING_DOWN)) {
         break;
       }
     }
 
-    shutdownTimeoutNanos = unit.toNanos(timeout);
+    if (oldState == State.NOT_STARTED) {
+      // start() does nothing once shutting down, so start the thread here to let it terminate.
+      doStart();
+    }
+    wakeup();
 
     return true;
   }
@@ -89,14 +239,112 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     return state.equals(State.TERMINATED);
   }
 
+  @Override
+  public Promise<?> terminationPromise() {
+    return terminationPromise;
+  }
+
   @Override
   public void execute(Runnable task) {
     checkNotNull(task, "task");
     addTask(task);
+    if (task instanceof StealableTask) {
+      wakeupForStealableTask();
+      return;
+    }
+    if (inEventLoop()) {
+      return;
+    }
+    start();
+    wakeup();
+  }
+
+  /**
+   * Adds {@code task} to the lane of {@code priority}. Tasks of a higher lane run before the tasks
+   * of lower ones, or more often than them with {@link #weightedPriority(int, int, int)}. Scheduled
+   * and stealable tasks have no lane, so only {@link Priority#NORMAL} is allowed for them.
+   */
+  public void execute(Runnable task, Priority priority) {
+    checkNotNull(task, "task");
+    checkNotNull(priority, "priority");
+    if (priority == Priority.NORMAL) {
+      execute(task);
+      return;
+    }
+    if (task instanceof ScheduledPromise || task instanceof StealableTask) {
+      throw new IllegalArgumentException("task can not have a priority: " + task);
+    }
+    if (isRejecting()) {
+      throw new RejectedExecutionException("Event loop is terminating");
+    }
+    offerTask(priority, task);
+    if (inEventLoop()) {
+      return;
+    }
+    start();
+    wakeup();
+  }
+
+  /** Wakes this event loop up if it is parked, otherwise a parked sibling to steal the task. */
+  private void wakeupForStealableTask() {
+    if (!inEventLoop()) {
+      start();
+      if (parked == 1) {
+        wakeup();
+        return;
+      }
+    }
+    for (SingleThreadEventLoop sibling : siblings) {
+      if (sibling.parked == 1) {
+        sibling.wakeup();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void lazyExecute(Runnable task) {
+    checkNotNull(task, "task");
+    addTask(task);
+    if (inEventLoop()) {
+      return;
+    }
+    // A loop which never started has no batch to pick the task up with.
+    start();
+  }
+
+  @Override
+  public void executeAll(Collection<? extends Runnable> tasks) {
+    checkNotNull(tasks, "tasks");
+    if (tasks.isEmpty()) {
+      return;
+    }
+    if (isRejecting()) {
+      throw new RejectedExecutionException("Event loop is terminating");
+    }
+    for (Runnable task : tasks) {
+      if (task instanceof ScheduledPromise) {
+        throw new IllegalArgumentException("scheduled task can not be added in a batch: " + task);
+      }
+    }
+    for (Runnable task : tasks) {
+      checkNotNull(task, "task");
+    }
+    if (!offerAllToLane(tasks)) {
+      if (rejectionPolicy == RejectionPolicy.abort()) {
+        throw new RejectedExecutionException("Event loop failed to add tasks");
+      }
+      // Admit the tasks one by one instead, so the rejection policy decides about those which do
+      // not fit.
+      for (Runnable task : tasks) {
+        offerTask(Priority.NORMAL, task);
+      }
+    }
     if (inEventLoop()) {
       return;
     }
     start();
+    wakeup();
   }
 
   public ScheduledPromise<?> schedule(Runnable command, long delay, TimeUnit unit) {
@@ -110,26 +358,424 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
       delay = 0L;
     }
 
-    nextTaskId += 1;
-    ScheduledPromise<V> task =
-        new ScheduledPromise<>(this, command, ScheduledPromise.deadlineNanos(unit.toNanos(delay)));
+    return schedule(new ScheduledPromise<>(this, command, deadlineNanos(unit.toNanos(delay))));
+  }
+
+  @Override
+  public ScheduledPromise<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    checkNotNull(command, "command");
+    checkNotNull(unit, "unit");
+    checkPositive(period, "period");
+    if (initialDelay < 0L) {
+      initialDelay = 0L;
+    }
+
+    return schedule(
+        new ScheduledPromise<Void>(
+            this, command, deadlineNanos(unit.toNanos(initialDelay)), unit.toNanos(period)));
+  }
+
+  @Override
+  public ScheduledPromise<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    checkNotNull(command, "command");
+    checkNotNull(unit, "unit");
+    checkPositive(delay, "delay");
+    if (initialDelay < 0L) {
+      initialDelay = 0L;
+    }
+
+    return schedule(
+        new ScheduledPromise<Void>(
+            this, command, deadlineNanos(unit.toNanos(initialDelay)), -unit.toNanos(delay)));
+  }
+
+  /** Returns the deadline {@code delayNanos} from now, read from {@link #nanoTime()}. */
+  long deadlineNanos(long delayNanos) {
+    return ScheduledPromise.deadlineNanos(nanoTime(), delayNanos);
+  }
 
+  private <V> ScheduledPromise<V> schedule(ScheduledPromise<V> task) {
     if (!inEventLoop()) {
+      // Goes to the inbound timer queue, the event loop assigns its id when merging it.
       execute(task);
       return task;
     }
 
-    scheduledPromiseQueue.add(task.setId(nextTaskId));
+    addScheduledTask(task);
     return task;
   }
 
-  public PriorityQueue<ScheduledPromise<?>> scheduledTaskQueue() {
+  private void addScheduledTask(ScheduledPromise<?> task) {
+    task.inTimerQueue = true;
+    nextTaskId += 1;
+    scheduledPromiseQueue.add(task.setId(nextTaskId));
+  }
+
+  /** Moves the tasks scheduled from other threads into the timer queue. */
+  private void mergeInboundTimers() {
+    if (!inboundTimers.isEmpty()) {
+      inboundTimers.drain(timerMerger, Integer.MAX_VALUE);
+    }
+  }
+
+  private void mergeInboundTimer(ScheduledPromise<?> task) {
+    // Flagged before checking for cancellation, so a concurrent cancel() either sees the flag and
+    // leaves the promise to be purged, or the promise is skipped here.
+    task.inTimerQueue = true;
+    if (!task.isCancelled()) {
+      addScheduledTask(task);
+    }
+  }
+
+  public TimerQueue scheduledTaskQueue() {
     return scheduledPromiseQueue;
   }
 
+  /**
+   * Create the queue for scheduled tasks. The default is a {@link HeapTimerQueue}, override this to
+   * use a {@link HashedWheelTimerQueue} for a large number of coarse timeouts.
+   */
+  protected TimerQueue newTimerQueue() {
+    return new HeapTimerQueue();
+  }
+
+  /** Returns the number of scheduled tasks which became due and were run or queued to run. */
+  public long firedScheduledTasks() {
+    return firedTimers;
+  }
+
+  /** Returns the number of scheduled tasks cancelled. */
+  public long cancelledScheduledTasks() {
+    return cancelledTimers;
+  }
+
+  public double cancelledTimerPurgeRatio() {
+    return cancelledTimerPurgeRatio;
+  }
+
+  /**
+   * Scheduled tasks cancelled from other threads stay in the timer queue until the event loop
+   * purges them. The event loop purges them once their number reaches {@code ratio} of the timer
+   * queue size.
+   */
+  public SingleThreadEventLoop cancelledTimerPurgeRatio(double ratio) {
+    if (!(ratio > 0 && ratio <= 1)) {
+      throw new IllegalArgumentException("ratio: " + ratio + " (expected: 0 < ratio <= 1)");
+    }
+    this.cancelledTimerPurgeRatio = ratio;
+    return this;
+  }
+
+  public ScheduledTaskPolicy scheduledTaskPolicy() {
+    return scheduledTaskPolicy;
+  }
+
+  /**
+   * Sets what happens to the scheduled tasks not run yet when shutting down. By default they are
+   * cancelled.
+   */
+  public SingleThreadEventLoop scheduledTaskPolicy(ScheduledTaskPolicy policy) {
+    this.scheduledTaskPolicy = checkNotNull(policy, "policy");
+    return this;
+  }
+
+  public int maxTasksPerIteration() {
+    return maxTasksPerIteration;
+  }
+
+  /** Sets how many tasks {@link #runTasks()} runs at most, scheduled tasks included. */
+  public SingleThreadEventLoop maxTasksPerIteration(int maxTasks) {
+    this.maxTasksPerIteration = (int) checkPositive(maxTasks, "maxTasks");
+    return this;
+  }
+
+  /** Returns the time budget of {@link #runTasks()} in nanoseconds, {@code 0} if there is none. */
+  public long iterationTimeBudgetNanos() {
+    return iterationTimeBudgetNanos;
+  }
+
+  /**
+   * Sets how long {@link #runTasks()} runs tasks before it returns, even if more tasks are waiting.
+   * The clock is read every {@value #TIME_BUDGET_CHECK_INTERVAL} tasks, so a single long task still
+   * overruns it. {@code 0}, the default, means no time budget.
+   */
+  public SingleThreadEventLoop iterationTimeBudget(long budget, TimeUnit unit) {
+    checkNotNull(unit, "unit");
+    this.iterationTimeBudgetNanos = unit.toNanos(checkPositiveOrZero(budget, "budget"));
+    return this;
+  }
+
+  public double scheduledTaskRatio() {
+    return scheduledTaskRatio;
+  }
+
+  /**
+   * Sets the share of {@link #maxTasksPerIteration()} which due scheduled tasks may take in one
+   * {@link #runTasks()}. The rest is left to the tasks in the task queue, so neither of them can
+   * starve the other.
+   */
+  public SingleThreadEventLoop scheduledTaskRatio(double ratio) {
+    if (!(ratio > 0 && ratio <= 1)) {
+      throw new IllegalArgumentException("ratio: " + ratio + " (expected: 0 < ratio <= 1)");
+    }
+    this.scheduledTaskRatio = ratio;
+    return this;
+  }
+
+  /** Returns how many times {@link #runTasks()} stopped because it ran the maximum tasks. */
+  public long taskBudgetExhaustions() {
+    return taskBudgetExhaustions;
+  }
+
+  /** Returns how many times {@link #runTasks()} stopped because it ran out of time. */
+  public long timeBudgetExhaustions() {
+    return timeBudgetExhaustions;
+  }
+
+  /**
+   * Returns how many times {@link #runTasks()} left due scheduled tasks for the next iteration
+   * because they used up their share.
+   */
+  public long scheduledTaskBudgetExhaustions() {
+    return scheduledTaskBudgetExhaustions;
+  }
+
+  /** Returns whether the lanes are drained in strict priority order, the default. */
+  public boolean isStrictPriority() {
+    return laneWeights == null;
+  }
+
+  /**
+   * Runs the tasks of a lane only when all higher lanes are empty. Low lanes may starve while high
+   * ones keep getting tasks.
+   */
+  public SingleThreadEventLoop strictPriority() {
+    this.laneWeights = null;
+    return this;
+  }
+
+  /**
+   * Visits the lanes in turns from {@link Priority#HIGH} to {@link Priority#LOW}, running up to as
+   * many tasks as the weight of a lane in its turn. An empty lane passes its turn on, so no lane
+   * starves and idle lanes cost nothing.
+   */
+  public SingleThreadEventLoop weightedPriority(int high, int normal, int low) {
+    this.laneWeights =
+        new int[] {
+          (int) checkPositive(high, "high"),
+          (int) checkPositive(normal, "normal"),
+          (int) checkPositive(low, "low")
+        };
+    return this;
+  }
+
+  public RejectionPolicy rejectionPolicy() {
+    return rejectionPolicy;
+  }
+
+  /**
+   * Sets what happens to a task added to a full lane. By default it is rejected with {@link
+   * RejectedExecutionException}. A batch of {@link #executeAll(Collection)} which does not fit as a
+   * whole is then rejected without adding any of its tasks. Under any other policy, it is added
+   * task by task, and the policy decides about each task which does not fit. A policy which throws,
+   * like {@link RejectionPolicy#block(long, TimeUnit)} once it times out, leaves the tasks before
+   * that one added.
+   */
+  public SingleThreadEventLoop rejectionPolicy(RejectionPolicy policy) {
+    this.rejectionPolicy = checkNotNull(policy, "policy");
+    return this;
+  }
+
+  public int lowWatermark() {
+    return lowWatermark;
+  }
+
+  /** Returns the high watermark of pending tasks, {@code 0} if there are no watermarks. */
+  public int highWatermark() {
+    return highWatermark;
+  }
+
+  /**
+   * Calls {@code listener} when the {@linkplain #pendingTasks() pending tasks} reach {@code high},
+   * and again when the event loop worked them down to {@code low}. Producers can slow down in
+   * between, long before a full lane rejects their tasks.
+   */
+  public SingleThreadEventLoop watermarks(int low, int high, WatermarkListener listener) {
+    checkPositiveOrZero(low, "low");
+    if (high <= low) {
+      throw new IllegalArgumentException("high: " + high + " (expected: > low (" + low + "))");
+    }
+    this.watermarkListener = checkNotNull(listener, "listener");
+    this.lowWatermark = low;
+    // Written last, as producers only look at the others once it is set.
+    this.highWatermark = high;
+    return this;
+  }
+
+  /** Returns whether the pending tasks reached the high watermark and not yet the low one since. */
+  public boolean isOverloaded() {
+    return overloaded == 1;
+  }
+
+  public boolean coarseClock() {
+    return coarseClock;
+  }
+
+  /**
+   * Sets whether the event loop thread reads the clock once per iteration instead of for every
+   * deadline, timer check and timing it needs. Deadlines of tasks scheduled from the event loop,
+   * due timer checks and timer lateness then use the time the iteration started at, which is off by
+   * as much as the iteration took. This is fine for millisecond timeouts and saves a {@link
+   * System#nanoTime()} per task where the clock is slow to read. It is off by default.
+   */
+  public SingleThreadEventLoop coarseClock(boolean coarse) {
+    this.coarseClock = coarse;
+    return this;
+  }
+
+  /**
+   * Returns the current time in nanoseconds, as used for the deadlines of scheduled tasks. On the
+   * event loop thread with a {@linkplain #coarseClock(boolean) coarse clock}, this is the time
+   * cached at the start of the current iteration, otherwise the clock is read.
+   */
+  public long nanoTime() {
+    return coarseClock && inEventLoop() ? cachedNanoTime : Time.currentNanos();
+  }
+
+  /**
+   * Reads the clock, whether the clock is coarse or not. On the event loop thread, the cached time
+   * is updated as well.
+   */
+  public long preciseNanoTime() {
+    long nanoTime = Time.currentNanos();
+    if (inEventLoop()) {
+      cachedNanoTime = nanoTime;
+      tasksSinceClockUpdate = 0;
+    }
+    return nanoTime;
+  }
+
+  /** Returns the statistics of this event loop, which can be read from any thread. */
+  @Override
+  public EventLoopMetrics metrics() {
+    return metrics;
+  }
+
+  public boolean recordTaskTimings() {
+    return recordTaskTimings;
+  }
+
+  /**
+   * Sets whether the queueing delay and run time of tasks and the lateness of scheduled tasks are
+   * recorded in {@link #metrics()}. It is off by default, because it reads the clock around every
+   * task and wraps every task added to the task queue.
+   */
+  public SingleThreadEventLoop recordTaskTimings(boolean record) {
+    this.recordTaskTimings = record;
+    return this;
+  }
+
+  /**
+   * Sets the event loops of the same group which may steal {@link StealableTask}s from this one.
+   */
+  void siblings(List<EventLoop> eventLoops) {
+    List<SingleThreadEventLoop> siblings = new ArrayList<>();
+    for (EventLoop eventLoop : eventLoops) {
+      if (eventLoop != this && eventLoop instanceof SingleThreadEventLoop) {
+        siblings.add((SingleThreadEventLoop) eventLoop);
+      }
+    }
+    this.siblings = siblings.toArray(new SingleThreadEventLoop[0]);
+  }
+
+  /** Takes a stealable task of a sibling, starting at a random one, and runs it. */
+  private boolean stealTask() {
+    SingleThreadEventLoop[] siblings = this.siblings;
+    if (siblings.length == 0) {
+      return false;
+    }
+    int start = ThreadLocalRandom.current().nextInt(siblings.length);
+    for (int i = 0; i < siblings.length; i++) {
+      Runnable task = siblings[(start + i) % siblings.length].stealableTasks.pollLast();
+      if (task != null) {
+        stolenTasks += 1;
+        executedTasks += 1;
+        resetIdle();
+        safeExecute(task);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasStealableSiblingTasks() {
+    for (SingleThreadEventLoop sibling : siblings) {
+      if (!sibling.stealableTasks.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void stallWatchdog(StallWatchdog watchdog) {
+    if (watchdog != null && stallWatchdog != null && stallWatchdog != watchdog) {
+      throw new IllegalStateException("event loop is watched by another watchdog already");
+    }
+    this.stallWatchdog = watchdog;
+    if (watchdog == null) {
+      runningTaskUpdater.lazySet(this, null);
+    }
+  }
+
+  Thread thread() {
+    return thread;
+  }
+
+  Runnable runningTask() {
+    return runningTask;
+  }
+
+  long runningTaskStartNanos() {
+    return runningTaskStartNanos;
+  }
+
+  /** Publishes the task which starts running, with lazy writes as the watchdog only samples it. */
+  private void trackRunningTask(Runnable task) {
+    if (task != null) {
+      runningTaskStartNanosUpdater.lazySet(this, Time.currentNanos());
+    }
+    runningTaskUpdater.lazySet(this, task);
+  }
+
+  void removeScheduled(ScheduledPromise<?> promise) {
+    cancelledTimersUpdater.incrementAndGet(this);
+    if (inEventLoop()) {
+      scheduledPromiseQueue.remove(promise);
+      return;
+    }
+    // Not merged yet, and merging skips cancelled promises, so there is nothing to purge.
+    if (!promise.inTimerQueue) {
+      return;
+    }
+    // The timer queue is only accessed by the event loop, so leave the promise for it to purge.
+    pendingCancellationsUpdater.incrementAndGet(this);
+  }
+
+  private void purgeCancelledScheduledTasks() {
+    int pending = pendingCancellations;
+    if (pending == 0 || pending < scheduledPromiseQueue.size() * cancelledTimerPurgeRatio) {
+      return;
+    }
+    pendingCancellationsUpdater.addAndGet(this, -pending);
+    scheduledPromiseQueue.purgeCancelled();
+  }
+
+  /** Shuts down without waiting, the tasks already in the task queue still run once. */
   @Override
   public void shutdown() {
-    throw new UnsupportedOperationException();
+    shutdownGracefully(0L, TimeUnit.NANOSECONDS);
   }
 
   @Override
@@ -162,6 +808,8 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     executor()
         .execute(
             () -> {
+              loopStartNanos = Time.currentNanos();
+              cachedNanoTime = loopStartNanos;
               thread = Thread.currentThread();
               try {
                 SingleThreadEventLoop.this.run();
@@ -191,17 +839,26 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
                     }
                   }
                 } finally {
-                  // drain tasks
-                  int numTasks = drainTasks();
-                  if (numTasks > 0) {
-                    LOGGER.info(
-                        "An event loop terminated with " + "non-empty task queue ({})", numTasks);
+                  try {
+                    // drain tasks
+                    int numTasks = drainTasks();
+                    if (numTasks > 0) {
+                      LOGGER.info(
+                          "An event loop terminated with " + "non-empty task queue ({})", numTasks);
+                    }
+                  } finally {
+                    terminate();
                   }
                 }
               }
             });
   }
 
+  private void terminate() {
+    stateUpdater.set(this, State.TERMINATED);
+    terminationPromise.setSuccess(null);
+  }
+
   protected boolean confirmShutdown() {
     if (!isShuttingDown()) {
       return false;
@@ -209,64 +866,516 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     if (!inEventLoop()) {
       throw new IllegalStateException("must be invoked from an event loop");
     }
-    cancelScheduledTasks();
+    boolean drainScheduledTasks = scheduledTaskPolicy == ScheduledTaskPolicy.DRAIN;
+    mergeInboundTimers();
+    if (!drainScheduledTasks) {
+      cancelScheduledTasks();
+    }
     runAllTasks();
-    if (Time.currentNanos() - shutdownStartNanos > shutdownTimeoutNanos) {
+
+    long nanoTime = nanoTime();
+    long timeLeftNanos = shutdownTimeoutNanos - (nanoTime - shutdownStartNanos);
+    if (isShutdown() || timeLeftNanos < 0) {
+      cancelScheduledTasks();
       return true;
     }
-    return isShutdown();
+    // The quiet period starts over whenever a task ran.
+    long quietStartNanos =
+        lastExecutionTime - shutdownStartNanos > 0 ? lastExecutionTime : shutdownStartNanos;
+    long quietLeftNanos = shutdownQuietPeriodNanos - (nanoTime - quietStartNanos);
+    if (drainScheduledTasks && !scheduledPromiseQueue.isEmpty()) {
+      awaitShutdownTask(Math.min(timeLeftNanos, nextScheduledTaskDelayNanos()));
+      return false;
+    }
+    if (quietLeftNanos < 0) {
+      return true;
+    }
+    awaitShutdownTask(Math.min(timeLeftNanos, quietLeftNanos));
+    return false;
+  }
+
+  /** Parks while shutting down until a task is added or {@code delayNanos} elapsed. */
+  private void awaitShutdownTask(long delayNanos) {
+    parked = 1;
+    // Re-check after publishing the flag, like idle() does.
+    if (hasTasks() || !inboundTimers.isEmpty()) {
+      parked = 0;
+      return;
+    }
+    LockSupport.parkNanos(this, delayNanos);
+    parked = 0;
   }
 
   private void cancelScheduledTasks() {
-    scheduledTaskQueue().clear();
+    mergeInboundTimers();
+    ScheduledPromise<?> scheduledTask;
+    while ((scheduledTask = scheduledPromiseQueue.poll(Long.MAX_VALUE)) != null) {
+      scheduledTask.cancel(false);
+    }
   }
 
   protected void updateLastExecutionTime() {
-    lastExecutionTime = Time.currentNanos();
+    lastExecutionTime = nanoTime();
+  }
+
+  /**
+   * Create the queue for tasks added by {@link #execute(Runnable)}, once for every {@link Priority}
+   * lane. The queue is written by many threads but only read by the event loop.
+   */
+  protected MpscQueue<Runnable> newTaskQueue(int maxPendingTasks) {
+    return new MpscChunkedArrayQueue<>(TASK_QUEUE_CHUNK_SIZE, maxPendingTasks);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Queue<Runnable>[] newOverflows() {
+    Queue<Runnable>[] overflows = (Queue<Runnable>[]) new Queue<?>[PRIORITIES.length];
+    for (int i = 0; i < overflows.length; i++) {
+      overflows[i] = new ConcurrentLinkedQueue<>();
+    }
+    return overflows;
+  }
+
+  @SuppressWarnings("unchecked")
+  private MpscQueue<Runnable>[] newLanes(int maxPendingTasks) {
+    MpscQueue<Runnable>[] lanes = (MpscQueue<Runnable>[]) new MpscQueue<?>[PRIORITIES.length];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = newTaskQueue(maxPendingTasks);
+    }
+    return lanes;
+  }
+
+  /** Returns the number of tasks waiting in the lanes of the task queue and their overflows. */
+  public int pendingTasks() {
+    int pendingTasks = Math.max(0, overflowedTasks);
+    for (MpscQueue<Runnable> lane : lanes) {
+      pendingTasks += lane.size();
+    }
+    return pendingTasks;
   }
 
   protected Runnable takeTask() {
     if (!inEventLoop()) {
       return null;
     }
-    BlockingQueue<Runnable> taskQueue = (BlockingQueue<Runnable>) this.taskQueue;
+    Runnable task = pollTask();
+    if (stallWatchdog != null) {
+      // The caller runs the task, so it counts as running until the next call. A TimedTask is
+      // recycled once run, so track the task it wraps.
+      trackRunningTask(task instanceof TimedTask ? ((TimedTask) task).task : task);
+    }
+    if (task != null) {
+      // Counted here, as the caller runs it.
+      executedTasks += 1;
+      resetIdle();
+    }
+    return task;
+  }
+
+  /** Takes the next task to run, without counting it as executed. */
+  private Runnable pollTask() {
+    if (coarseClock && ++tasksSinceClockUpdate >= CLOCK_UPDATE_INTERVAL) {
+      // A loop built on takeTask() has no batch boundary, so count tasks instead.
+      preciseNanoTime();
+    }
+    mergeInboundTimers();
+    if (!scheduledPromiseQueue.isEmpty()) {
+      queueScheduledTask();
+    }
+    Runnable task = pollLanes();
+    if (task == null) {
+      task = stealableTasks.pollFirst();
+    }
+    checkLowWatermark();
+    return task;
+  }
+
+  /**
+   * Runs the due scheduled tasks and the tasks in the task queue in one batch, without going
+   * through {@link #takeTask()} for each of them. Due scheduled tasks run first, up to their share
+   * of {@link #maxTasksPerIteration()}, then the task queue fills the rest. Both stop early when
+   * the {@linkplain #iterationTimeBudget(long, TimeUnit) time budget} is used up.
+   *
+   * @return the number of tasks ran
+   */
+  protected int runTasks() {
+    if (!inEventLoop()) {
+      return 0;
+    }
+    int maxTasks = maxTasksPerIteration;
+    long startNanos = preciseNanoTime();
+    int numTasks = 0;
+    mergeInboundTimers();
+    if (!scheduledPromiseQueue.isEmpty()) {
+      int maxScheduledTasks = Math.max(1, (int) (maxTasks * scheduledTaskRatio));
+      numTasks = runScheduledTasks(startNanos, maxScheduledTasks);
+    }
+    while (numTasks < maxTasks) {
+      if (numTasks > 0 && timeBudgetExhausted(startNanos)) {
+        if (hasTasks()) {
+          timeBudgetExhaustions += 1;
+        }
+        break;
+      }
+      int limit = Math.min(TIME_BUDGET_CHECK_INTERVAL, maxTasks - numTasks);
+      int ran = runLaneTasks(limit);
+      if (ran == 0) {
+        ran = runStealableTasks(limit);
+      }
+      if (ran == 0) {
+        break;
+      }
+      numTasks += ran;
+    }
+    if (numTasks >= maxTasks && hasTasks()) {
+      taskBudgetExhaustions += 1;
+    }
+    if (numTasks > 0) {
+      executedTasks += numTasks;
+      resetIdle();
+      updateLastExecutionTime();
+    }
+    checkLowWatermark();
+    return numTasks;
+  }
+
+  /** Runs up to {@code limit} tasks of the lanes, in the order of their priorities. */
+  private int runLaneTasks(int limit) {
+    if (overflowedTasks != 0) {
+      refillLanes();
+    }
+    if (laneWeights != null) {
+      int numTasks = 0;
+      Runnable task;
+      while (numTasks < limit && (task = pollLanes()) != null) {
+        numTasks += 1;
+        safeExecute(task);
+      }
+      return numTasks;
+    }
+    int numTasks = 0;
+    for (MpscQueue<Runnable> lane : lanes) {
+      if (numTasks == limit) {
+        break;
+      }
+      if (!lane.isEmpty()) {
+        numTasks += lane.drain(taskRunner, limit - numTasks);
+      }
+    }
+    return numTasks;
+  }
+
+  /** Takes the next task of the lanes, by strict priority or by weighted turns. */
+  private Runnable pollLanes() {
+    if (overflowedTasks != 0) {
+      refillLanes();
+    }
+    int[] weights = laneWeights;
+    if (weights == null) {
+      for (MpscQueue<Runnable> lane : lanes) {
+        Runnable task = lane.poll();
+        if (task != null) {
+          return task;
+        }
+      }
+      return null;
+    }
+    // One more step than there are lanes, as the current lane may have used up its turn.
+    for (int i = 0; i <= lanes.length; i++) {
+      if (tasksFromCurrentLane < weights[currentLane]) {
+        Runnable task = lanes[currentLane].poll();
+        if (task != null) {
+          tasksFromCurrentLane += 1;
+          return task;
+        }
+      }
+      currentLane = (currentLane + 1) % lanes.length;
+      tasksFromCurrentLane = 0;
+    }
+    return null;
+  }
+
+  /** Runs the stealable tasks which siblings did not steal yet, after the pinned ones. */
+  private int runStealableTasks(int limit) {
+    int numTasks = 0;
+    while (numTasks < limit) {
+      Runnable task = stealableTasks.pollFirst();
+      if (task == null) {
+        break;
+      }
+      numTasks += 1;
+      safeExecute(task);
+    }
+    return numTasks;
+  }
+
+  /** Runs the scheduled tasks due at {@code nanoTime} directly from the timer queue. */
+  private int runScheduledTasks(long nanoTime, int maxTasks) {
+    purgeCancelledScheduledTasks();
+    int numTasks = 0;
     while (true) {
-      if (peekScheduledTask() == null) {
-        return taskQueue.poll();
+      if (numTasks > 0
+          && numTasks % TIME_BUDGET_CHECK_INTERVAL == 0
+          && timeBudgetExhausted(nanoTime)) {
+        return numTasks;
       }
-      queueScheduledTask();
-      return taskQueue.poll();
+      if (numTasks == maxTasks) {
+        long deadlineNanos = scheduledPromiseQueue.nextDeadlineNanos();
+        if (deadlineNanos != -1 && deadlineNanos <= nanoTime) {
+          scheduledTaskBudgetExhaustions += 1;
+        }
+        return numTasks;
+      }
+      ScheduledPromise<?> scheduledTask = scheduledPromiseQueue.poll(nanoTime);
+      if (scheduledTask == null) {
+        return numTasks;
+      }
+      if (scheduledTask.isCancelled()) {
+        continue;
+      }
+      firedTimers += 1;
+      numTasks += 1;
+      if (!recordTaskTimings) {
+        safeExecute(scheduledTask);
+        continue;
+      }
+      long startNanos = Time.currentNanos();
+      timerLateness.record(startNanos - scheduledTask.deadlineNanos());
+      safeExecute(scheduledTask);
+      runTime.record(Time.currentNanos() - startNanos);
+    }
+  }
+
+  private boolean timeBudgetExhausted(long startNanos) {
+    long budgetNanos = iterationTimeBudgetNanos;
+    return budgetNanos != 0 && Time.currentNanos() - startNanos >= budgetNanos;
+  }
+
+  private void resetIdle() {
+    if (idling) {
+      idling = false;
+      idleStrategy.reset();
+    }
+  }
+
+  private void safeExecute(Runnable task) {
+    boolean watched = stallWatchdog != null;
+    if (watched) {
+      trackRunningTask(task instanceof TimedTask ? ((TimedTask) task).task : task);
+    }
+    try {
+      task.run();
+    } catch (Throwable t) {
+      LOGGER.error("A task terminated with unexpected exception. Exception: ", t);
+    } finally {
+      if (watched) {
+        trackRunningTask(null);
+      }
+    }
+  }
+
+  /**
+   * Lets the {@link IdleStrategy} decide what to do when {@link #takeTask()} found nothing to run.
+   * A parking strategy never sleeps past the deadline of the next scheduled task, and {@link
+   * #execute(Runnable)} from other threads wakes a parked event loop up.
+   */
+  protected void idle() {
+    if (!inEventLoop()) {
+      return;
+    }
+    if (stallWatchdog != null) {
+      trackRunningTask(null);
+    }
+    if (!isShuttingDown() && stealTask()) {
+      return;
+    }
+    idling = true;
+    parked = 1;
+    // Re-check after publishing the flag, a producer may have added a task before it saw the flag.
+    if (hasTasks() || !inboundTimers.isEmpty() || isShuttingDown() || hasStealableSiblingTasks()) {
+      parked = 0;
+      return;
+    }
+    long startNanos = Time.currentNanos();
+    idleStartNanos = startNanos;
+    idleStrategy.idle(nextScheduledTaskDelayNanos());
+    idleNanos += preciseNanoTime() - startNanos;
+    idleStartNanos = -1;
+    parked = 0;
+  }
+
+  private void wakeup() {
+    if (parked == 1 && parkedUpdater.compareAndSet(this, 1, 0)) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private boolean hasTasks() {
+    for (MpscQueue<Runnable> lane : lanes) {
+      if (!lane.isEmpty()) {
+        return true;
+      }
+    }
+    return overflowedTasks != 0 || !stealableTasks.isEmpty();
+  }
+
+  /**
+   * Returns the nanoseconds left until the next scheduled task is due, {@code 0} if it is already
+   * due, or {@code -1} if there is no scheduled task.
+   */
+  protected long nextScheduledTaskDelayNanos() {
+    if (inEventLoop()) {
+      mergeInboundTimers();
     }
+    long deadlineNanos = scheduledPromiseQueue.nextDeadlineNanos();
+    if (deadlineNanos == -1) {
+      return -1;
+    }
+    return Math.max(0, deadlineNanos - Time.currentNanos());
   }
 
   private void addTask(Runnable task) {
     checkNotNull(task, "task");
-    if (isShuttingDown()) {
+    if (isRejecting()) {
       throw new RejectedExecutionException("Event loop is terminating");
     }
     if (task instanceof ScheduledPromise) {
-      scheduledPromiseQueue.add((ScheduledPromise<?>) task);
+      if (inEventLoop()) {
+        addScheduledTask((ScheduledPromise<?>) task);
+        return;
+      }
+      inboundTimers.offer((ScheduledPromise<?>) task);
       return;
     }
-    if (!taskQueue.offer(task)) {
-      throw new RejectedExecutionException("Event loop failed to add task");
+    if (task instanceof StealableTask) {
+      stealableTasks.offerLast(task);
+      return;
     }
+    offerTask(Priority.NORMAL, task);
   }
 
-  private void runAllTasks() {
-    if (!inEventLoop()) {
-      return;
+  private void offerTask(Priority priority, Runnable task) {
+    if (!offerToLane(task, priority)) {
+      rejectionPolicy.rejected(task, priority, this);
+    }
+  }
+
+  /** Adds {@code task} to the lane of {@code priority}, or returns {@code false} if it is full. */
+  boolean offerToLane(Runnable task, Priority priority) {
+    // While the lane has spilled tasks, new ones are spilled too to keep their order.
+    if (hasOverflow(priority) || !lanes[priority.ordinal()].offer(timed(task))) {
+      return false;
+    }
+    taskAdded();
+    return true;
+  }
+
+  /** Adds all {@code tasks} to the {@link Priority#NORMAL} lane, or none if they do not fit. */
+  private boolean offerAllToLane(Collection<? extends Runnable> tasks) {
+    if (hasOverflow(Priority.NORMAL)) {
+      return false;
+    }
+    if (recordTaskTimings) {
+      List<Runnable> timedTasks = new ArrayList<>(tasks.size());
+      for (Runnable task : tasks) {
+        timedTasks.add(TimedTask.newInstance(this, task));
+      }
+      tasks = timedTasks;
+    }
+    if (!taskQueue.offerAll(tasks)) {
+      return false;
+    }
+    taskAdded();
+    return true;
+  }
+
+  private boolean hasOverflow(Priority priority) {
+    return overflowedTasks != 0 && overflowSizes.get(priority.ordinal()) != 0;
+  }
+
+  /** Adds {@code task} to the overflow of the lane of {@code priority}. */
+  void spill(Runnable task, Priority priority) {
+    // Counted first, so the event loop never sees more tasks than counted.
+    overflowedTasksUpdater.incrementAndGet(this);
+    overflowSizes.incrementAndGet(priority.ordinal());
+    overflows[priority.ordinal()].offer(timed(task));
+    taskAdded();
+  }
+
+  /** Adds {@code task} to the lane of {@code priority}, in place of the oldest task. */
+  void replaceOldest(Runnable task, Priority priority) {
+    pendingDrops.incrementAndGet(priority.ordinal());
+    spill(task, priority);
+  }
+
+  /** Counts {@code task} as dropped, and cancels it if someone may wait for it. */
+  void dropTask(Runnable task) {
+    droppedTasksUpdater.incrementAndGet(this);
+    if (task instanceof Future) {
+      ((Future<?>) task).cancel(false);
+    }
+  }
+
+  private Runnable timed(Runnable task) {
+    return recordTaskTimings ? TimedTask.newInstance(this, task) : task;
+  }
+
+  private void taskAdded() {
+    int high = highWatermark;
+    if (high != 0
+        && overloaded == 0
+        && pendingTasks() >= high
+        && overloadedUpdater.compareAndSet(this, 0, 1)) {
+      watermarkListener.overloadChanged(this, true);
+    }
+  }
+
+  /** Clears the overload once the pending tasks fell to the low watermark. */
+  private void checkLowWatermark() {
+    if (overloaded == 1
+        && pendingTasks() <= lowWatermark
+        && overloadedUpdater.compareAndSet(this, 1, 0)) {
+      watermarkListener.overloadChanged(this, false);
+    }
+  }
+
+  /** Drops the displaced tasks, and moves overflowed tasks back to their lanes while they fit. */
+  private void refillLanes() {
+    for (int i = 0; i < lanes.length; i++) {
+      MpscQueue<Runnable> lane = lanes[i];
+      for (int drops = pendingDrops.getAndSet(i, 0); drops > 0; drops--) {
+        Runnable task = lane.poll();
+        if (task == null) {
+          break;
+        }
+        dropTask(task instanceof TimedTask ? ((TimedTask) task).task : task);
+      }
+      Queue<Runnable> overflow = overflows[i];
+      Runnable task;
+      while ((task = overflow.peek()) != null && lane.offer(task)) {
+        overflow.poll();
+        overflowSizes.decrementAndGet(i);
+        overflowedTasksUpdater.decrementAndGet(this);
+      }
     }
+  }
+
+  /**
+   * Returns whether a periodic task which just ran is scheduled again. Once shutting down, it is
+   * only with {@link ScheduledTaskPolicy#DRAIN} until the event loop is shut down.
+   */
+  boolean reschedulesPeriodicTasks() {
+    return !isShuttingDown() || (scheduledTaskPolicy == ScheduledTaskPolicy.DRAIN && !isShutdown());
+  }
+
+  private boolean isRejecting() {
+    return isShuttingDown() && (!acceptTasksWhileShuttingDown || isShutdown());
+  }
+
+  private void runAllTasks() {
     while (true) {
-      Runnable task = takeTask();
-      if (task == null) {
+      if (runTasks() == 0) {
         break;
       }
-      try {
-        task.run();
-      } catch (Throwable t) {
-        LOGGER.error("An event loop terminated with unexpected exception. Exception: ", t);
-      }
     }
   }
 
@@ -275,8 +1384,9 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     if (!inEventLoop()) {
       return 0;
     }
+    // The tasks are dropped without running, so they do not count as executed.
     while (true) {
-      Runnable task = takeTask();
+      Runnable task = pollTask();
       if (task == null) {
         break;
       }
@@ -285,42 +1395,164 @@ public abstract class SingleThreadEventLoop extends AbstractEventLoop {
     return numTasks;
   }
 
-  private ScheduledPromise<?> peekScheduledTask() {
-    return this.scheduledPromiseQueue.peek();
-  }
-
-  private Runnable pollScheduledTask(long nanoTime) {
-    if (!inEventLoop()) {
-      return null;
-    }
-    ScheduledPromise<?> scheduledPromise = peekScheduledTask();
-    if (scheduledPromise == null || scheduledPromise.deadlineNanos() - nanoTime > 0) {
-      return null;
-    }
-    scheduledPromiseQueue.remove();
-    return scheduledPromise;
-  }
-
   private boolean queueScheduledTask() {
     if (scheduledPromiseQueue.isEmpty()) {
       return true;
     }
+    purgeCancelledScheduledTasks();
+    long nanoTime = nanoTime();
     while (true) {
-      Runnable scheduledTask = pollScheduledTask(Time.currentNanos());
+      ScheduledPromise<?> scheduledTask = scheduledPromiseQueue.poll(nanoTime);
       if (scheduledTask == null) {
         return true;
       }
+      if (scheduledTask.isCancelled()) {
+        continue;
+      }
       boolean isAdded = taskQueue.offer(scheduledTask);
       if (isAdded) {
+        firedTimers += 1;
+        if (recordTaskTimings) {
+          timerLateness.record(nanoTime - scheduledTask.deadlineNanos());
+        }
         continue;
       }
-      scheduledPromiseQueue.add((ScheduledPromise<?>) scheduledTask);
+      scheduledPromiseQueue.add(scheduledTask);
       return false;
     }
   }
 
   @Override
-  public boolean awaitTermination(long timeout, TimeUnit unit) {
-    return false;
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    checkNotNull(unit, "unit");
+    if (inEventLoop()) {
+      throw new IllegalStateException("cannot await termination of the current event loop");
+    }
+    return terminationPromise.await(timeout, unit).isDone();
+  }
+
+  /** What happens to the scheduled tasks not run yet when an event loop shuts down. */
+  public enum ScheduledTaskPolicy {
+    /** Cancel them as soon as shutting down starts. */
+    CANCEL,
+    /**
+     * Keep running them as they become due until the timeout, then cancel the rest. A periodic task
+     * keeps the event loop running until the timeout, and is cancelled then.
+     */
+    DRAIN
+  }
+
+  /**
+   * Remembers when a task was added to the task queue, to record its timings when it runs. It is
+   * recycled once run, as only the task queue refers to it.
+   */
+  private static final class TimedTask implements Runnable {
+
+    private static final Recycler<TimedTask> RECYCLER =
+        new Recycler<TimedTask>() {
+          @Override
+          protected TimedTask newObject(Handle<TimedTask> handle) {
+            return new TimedTask(handle);
+          }
+        };
+
+    private final Recycler.Handle<TimedTask> handle;
+    private SingleThreadEventLoop eventLoop;
+    private Runnable task;
+    private long addedNanos;
+
+    private TimedTask(Recycler.Handle<TimedTask> handle) {
+      this.handle = handle;
+    }
+
+    static TimedTask newInstance(SingleThreadEventLoop eventLoop, Runnable task) {
+      TimedTask timedTask = RECYCLER.get();
+      timedTask.eventLoop = eventLoop;
+      timedTask.task = task;
+      timedTask.addedNanos = Time.currentNanos();
+      return timedTask;
+    }
+
+    @Override
+    public void run() {
+      SingleThreadEventLoop eventLoop = this.eventLoop;
+      long startNanos = Time.currentNanos();
+      eventLoop.queueingDelay.record(startNanos - addedNanos);
+      try {
+        task.run();
+      } finally {
+        eventLoop.runTime.record(Time.currentNanos() - startNanos);
+        this.eventLoop = null;
+        this.task = null;
+        handle.recycle(this);
+      }
+    }
+  }
+
+  private final class Metrics implements EventLoopMetrics {
+
+    @Override
+    public int pendingTasks() {
+      return SingleThreadEventLoop.this.pendingTasks();
+    }
+
+    @Override
+    public int pendingTasks(Priority priority) {
+      int lane = checkNotNull(priority, "priority").ordinal();
+      return lanes[lane].size() + Math.max(0, overflowSizes.get(lane));
+    }
+
+    @Override
+    public long droppedTasks() {
+      return droppedTasks;
+    }
+
+    @Override
+    public int pendingScheduledTasks() {
+      return scheduledPromiseQueue.size() + inboundTimers.size();
+    }
+
+    @Override
+    public long executedTasks() {
+      return executedTasks;
+    }
+
+    @Override
+    public long stolenTasks() {
+      return stolenTasks;
+    }
+
+    @Override
+    public double busyRatio() {
+      if (thread == null) {
+        return 0;
+      }
+      long nowNanos = Time.currentNanos();
+      long elapsedNanos = nowNanos - loopStartNanos;
+      if (elapsedNanos <= 0) {
+        return 0;
+      }
+      long idle = idleNanos;
+      long idleStart = idleStartNanos;
+      if (idleStart != -1) {
+        idle += nowNanos - idleStart;
+      }
+      return Math.max(0, Math.min(1, 1 - (double) idle / elapsedNanos));
+    }
+
+    @Override
+    public Histogram queueingDelay() {
+      return queueingDelay;
+    }
+
+    @Override
+    public Histogram runTime() {
+      return runTime;
+    }
+
+    @Override
+    public Histogram timerLateness() {
+      return timerLateness;
+    }
   }
 }
@@ -0,0 +1,34 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+/** An {@link IdleStrategy} that spins for {@code maxSpins} times, then yields the thread. */
+public final class SpinYieldIdleStrategy implements IdleStrategy {
+
+  private static final int DEFAULT_MAX_SPINS = 100;
+
+  private final int maxSpins;
+  private int spins;
+
+  public SpinYieldIdleStrategy() {
+    this(DEFAULT_MAX_SPINS);
+  }
+
+  public SpinYieldIdleStrategy(int maxSpins) {
+    this.maxSpins = (int) checkPositiveOrZero(maxSpins, "maxSpins");
+  }
+
+  @Override
+  public void idle(long maxParkNanos) {
+    if (spins < maxSpins) {
+      spins += 1;
+      return;
+    }
+    Thread.yield();
+  }
+
+  @Override
+  public void reset() {
+    spins = 0;
+  }
+}
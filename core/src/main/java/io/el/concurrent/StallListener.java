@@ -0,0 +1,8 @@
+package io.el.concurrent;
+
+/** Gets notified by a {@link StallWatchdog} when a task blocks its event loop for too long. */
+public interface StallListener {
+
+  /** Called from the thread of the {@link StallWatchdog}, so it must not block for long. */
+  void onStall(StallReport report);
+}
@@ -0,0 +1,65 @@
+package io.el.concurrent;
+
+/** Describes a task which has been running on an event loop longer than the stall threshold. */
+public final class StallReport {
+
+  private final EventLoop eventLoop;
+  private final Thread thread;
+  private final Runnable task;
+  private final long elapsedNanos;
+  private final StackTraceElement[] stackTrace;
+  private final int suppressedReports;
+
+  StallReport(
+      EventLoop eventLoop,
+      Thread thread,
+      Runnable task,
+      long elapsedNanos,
+      StackTraceElement[] stackTrace,
+      int suppressedReports) {
+    this.eventLoop = eventLoop;
+    this.thread = thread;
+    this.task = task;
+    this.elapsedNanos = elapsedNanos;
+    this.stackTrace = stackTrace;
+    this.suppressedReports = suppressedReports;
+  }
+
+  public EventLoop eventLoop() {
+    return eventLoop;
+  }
+
+  /** Returns the thread of the event loop. */
+  public Thread thread() {
+    return thread;
+  }
+
+  /**
+   * Returns the stalled task as it was given to the event loop, never a wrapper of the event loop.
+   * Tasks of a channel pipeline are plain lambdas, so the report can not name their channel. A
+   * listener which knows the tasks of its application can map the task, or its class, to the
+   * affected channel.
+   */
+  public Runnable task() {
+    return task;
+  }
+
+  public Class<?> taskClass() {
+    return task.getClass();
+  }
+
+  /** Returns how long the task had been running when it was sampled. */
+  public long elapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /** Returns the stack trace of the event loop thread, sampled while the task was running. */
+  public StackTraceElement[] stackTrace() {
+    return stackTrace.clone();
+  }
+
+  /** Returns how many stalls were not reported since the previous report, due to rate limiting. */
+  public int suppressedReports() {
+    return suppressedReports;
+  }
+}
@@ -0,0 +1,172 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+import static io.el.internal.ObjectUtil.checkPositive;
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+import io.el.internal.Time;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Watches {@link SingleThreadEventLoop}s for tasks which run longer than a threshold and so block
+ * every other task of their event loop.
+ *
+ * <p>One daemon thread samples the start time of the task each watched event loop is running. When
+ * a task has been running longer than the threshold, it captures the stack trace of the event loop
+ * thread and reports it once to the {@link StallListener}. At most one report is made per {@link
+ * #minReportInterval()}, the stalls in between are only counted.
+ */
+public class StallWatchdog {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+  private static final long DEFAULT_MIN_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final long thresholdNanos;
+  private final long checkIntervalNanos;
+  private final StallListener listener;
+  private final List<Watched> watched = new CopyOnWriteArrayList<>();
+  private volatile long minReportIntervalNanos = DEFAULT_MIN_REPORT_INTERVAL_NANOS;
+  private volatile Thread thread;
+  private volatile boolean closed;
+  // Only accessed by the watchdog thread
+  private long lastReportNanos = Long.MIN_VALUE;
+  private int suppressedReports;
+
+  /** Creates a watchdog which logs the stalls. */
+  public StallWatchdog(long threshold, TimeUnit unit) {
+    this(threshold, unit, StallWatchdog::log);
+  }
+
+  public StallWatchdog(long threshold, TimeUnit unit, StallListener listener) {
+    checkNotNull(unit, "unit");
+    this.thresholdNanos = unit.toNanos(checkPositive(threshold, "threshold"));
+    this.checkIntervalNanos = Math.max(MIN_CHECK_INTERVAL_NANOS, thresholdNanos / 2);
+    this.listener = checkNotNull(listener, "listener");
+  }
+
+  public long minReportInterval(TimeUnit unit) {
+    return unit.convert(minReportIntervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Sets the minimum time between two reports. */
+  public StallWatchdog minReportInterval(long interval, TimeUnit unit) {
+    checkNotNull(unit, "unit");
+    this.minReportIntervalNanos = unit.toNanos(checkPositiveOrZero(interval, "interval"));
+    return this;
+  }
+
+  /** Starts watching {@code eventLoop}, an event loop is watched by one watchdog at most. */
+  public StallWatchdog watch(SingleThreadEventLoop eventLoop) {
+    checkNotNull(eventLoop, "eventLoop");
+    if (closed) {
+      throw new IllegalStateException("watchdog is closed");
+    }
+    eventLoop.stallWatchdog(this);
+    if (watched.stream().anyMatch(w -> w.eventLoop == eventLoop)) {
+      return this;
+    }
+    watched.add(new Watched(eventLoop));
+    startThread();
+    return this;
+  }
+
+  public StallWatchdog unwatch(SingleThreadEventLoop eventLoop) {
+    checkNotNull(eventLoop, "eventLoop");
+    watched.removeIf(w -> w.eventLoop == eventLoop);
+    eventLoop.stallWatchdog(null);
+    return this;
+  }
+
+  /** Stops the watchdog thread and all watching. */
+  public void close() {
+    closed = true;
+    watched.forEach(w -> w.eventLoop.stallWatchdog(null));
+    watched.clear();
+    Thread thread = this.thread;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private synchronized void startThread() {
+    if (thread != null) {
+      return;
+    }
+    Thread thread = new Thread(this::run, "el-stall-watchdog");
+    thread.setDaemon(true);
+    this.thread = thread;
+    thread.start();
+  }
+
+  private void run() {
+    while (!closed) {
+      LockSupport.parkNanos(this, checkIntervalNanos);
+      long nowNanos = Time.currentNanos();
+      for (Watched w : watched) {
+        try {
+          check(w, nowNanos);
+        } catch (Throwable t) {
+          LOGGER.error("Failed to check an event loop for stalls. Exception: ", t);
+        }
+      }
+    }
+  }
+
+  private void check(Watched w, long nowNanos) {
+    SingleThreadEventLoop eventLoop = w.eventLoop;
+    Runnable task = eventLoop.runningTask();
+    if (task == null) {
+      return;
+    }
+    long startNanos = eventLoop.runningTaskStartNanos();
+    long elapsedNanos = nowNanos - startNanos;
+    if (elapsedNanos < thresholdNanos || startNanos == w.reportedStartNanos) {
+      return;
+    }
+    Thread thread = eventLoop.thread();
+    StackTraceElement[] stackTrace = thread.getStackTrace();
+    // The task may have finished while the stack trace was taken.
+    if (eventLoop.runningTask() != task || eventLoop.runningTaskStartNanos() != startNanos) {
+      return;
+    }
+    w.reportedStartNanos = startNanos;
+    if (lastReportNanos != Long.MIN_VALUE && nowNanos - lastReportNanos < minReportIntervalNanos) {
+      suppressedReports += 1;
+      return;
+    }
+    StallReport report =
+        new StallReport(eventLoop, thread, task, elapsedNanos, stackTrace, suppressedReports);
+    lastReportNanos = nowNanos;
+    suppressedReports = 0;
+    listener.onStall(report);
+  }
+
+  private static void log(StallReport report) {
+    Throwable trace = new Throwable("Stack trace of " + report.thread().getName());
+    trace.setStackTrace(report.stackTrace());
+    LOGGER.warn(
+        "A task of {} has been blocking the event loop for {} ms, {} stalls not reported since the"
+            + " last report.",
+        report.taskClass().getName(),
+        TimeUnit.NANOSECONDS.toMillis(report.elapsedNanos()),
+        report.suppressedReports(),
+        trace);
+  }
+
+  private static final class Watched {
+
+    private final SingleThreadEventLoop eventLoop;
+    // Start time of the last task reported, so a stalled task is reported once
+    private long reportedStartNanos = Long.MIN_VALUE;
+
+    private Watched(SingleThreadEventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+  }
+}
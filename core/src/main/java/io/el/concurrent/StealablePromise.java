@@ -0,0 +1,17 @@
+package io.el.concurrent;
+
+/**
+ * The promise of a submitted {@link StealableTask}. It runs on whichever event loop took it, while
+ * its listeners are still notified on the event loop it was submitted to.
+ */
+class StealablePromise<V> extends DefaultPromise<V> implements StealableTask {
+
+  StealablePromise(EventLoop eventLoop, StealableTask task) {
+    super(eventLoop, task);
+  }
+
+  @Override
+  protected boolean canRunInCurrentThread() {
+    return true;
+  }
+}
@@ -0,0 +1,22 @@
+package io.el.concurrent;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+
+/**
+ * A task which is not bound to the {@link EventLoop} it is given to. While its event loop is busy,
+ * an idle sibling event loop of the same {@link EventLoopGroup} may steal and run it.
+ *
+ * <p>Only tasks which do not touch state owned by an event loop, such as the channels registered to
+ * it, should be stealable. Other tasks stay on the event loop they are given to.
+ */
+public interface StealableTask extends Runnable {
+
+  /** Returns {@code task} marked as stealable. */
+  static StealableTask of(Runnable task) {
+    checkNotNull(task, "task");
+    if (task instanceof StealableTask) {
+      return (StealableTask) task;
+    }
+    return task::run;
+  }
+}
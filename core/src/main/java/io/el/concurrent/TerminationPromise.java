@@ -0,0 +1,18 @@
+package io.el.concurrent;
+
+/**
+ * The promise which completes when an event loop terminated. The event loop cannot run tasks any
+ * more by then, so its listeners are notified in the thread which completes the promise or adds
+ * them.
+ */
+class TerminationPromise extends CompletionPromise<Void> {
+
+  TerminationPromise(EventLoop eventLoop) {
+    super(eventLoop);
+  }
+
+  @Override
+  protected boolean canNotifyInCurrentThread() {
+    return true;
+  }
+}
@@ -0,0 +1,37 @@
+package io.el.concurrent;
+
+/**
+ * A {@code TimerQueue} keeps the {@link ScheduledPromise}s of a {@link SingleThreadEventLoop} until
+ * they are due. It is only accessed from the event loop thread, so implementations need no
+ * synchronization.
+ */
+public interface TimerQueue {
+
+  /** Adds the scheduled promise to be returned by {@link #poll(long)} once it is due. */
+  void add(ScheduledPromise<?> promise);
+
+  /** Removes the scheduled promise. Returns {@code false} if it was not in this queue. */
+  boolean remove(ScheduledPromise<?> promise);
+
+  /**
+   * Removes and returns a scheduled promise whose deadline is not after {@code nanoTime}, or {@code
+   * null} if nothing is due.
+   */
+  ScheduledPromise<?> poll(long nanoTime);
+
+  /**
+   * Removes every cancelled scheduled promise from this queue.
+   *
+   * @return the number of scheduled promises removed
+   */
+  int purgeCancelled();
+
+  /** Returns the earliest deadline in this queue, or {@code -1} if it is empty. */
+  long nextDeadlineNanos();
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+}
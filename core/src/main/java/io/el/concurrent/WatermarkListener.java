@@ -0,0 +1,15 @@
+package io.el.concurrent;
+
+/**
+ * Gets notified when the pending tasks of a {@link SingleThreadEventLoop} cross its watermarks, so
+ * producers can slow down before tasks get rejected.
+ */
+public interface WatermarkListener {
+
+  /**
+   * Called with {@code overloaded} set when the pending tasks reached the high watermark, from the
+   * thread which added the task, and with it cleared when they fell to the low watermark, from the
+   * event loop thread. It must not block.
+   */
+  void overloadChanged(SingleThreadEventLoop eventLoop, boolean overloaded);
+}
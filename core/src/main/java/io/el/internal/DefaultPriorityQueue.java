@@ -51,16 +51,9 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
     }
 
     items[size] = node;
-
-    int current = size;
-    while (comparator.compare(node, parent(current)) < 0) {
-      int parentIndex = parent(current).index();
-      swap(current, parentIndex);
-      current = parentIndex;
-    }
-
-    node.index(current);
+    node.index(size);
     size += 1;
+    bubbleUp(node);
 
     return true;
   }
@@ -103,8 +96,10 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
 
   @Override
   public T remove() {
-    T item = items[0];
-    remove(item);
+    T item = poll();
+    if (item == null) {
+      throw new NoSuchElementException();
+    }
     return item;
   }
 
@@ -128,12 +123,20 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
     int indexRemoved = node.index();
     node.index(INDEX_NOT_IN_QUEUE);
 
-    T moved = items[size - 1];
+    size -= 1;
+    T moved = items[size];
+    items[size] = null;
+    if (indexRemoved == size) {
+      return true;
+    }
     items[indexRemoved] = moved;
     moved.index(indexRemoved);
 
-    size -= 1;
-    bubbleDown(moved.index());
+    // The moved node came from the bottom of the heap, it can be smaller than its new parent.
+    bubbleDown(indexRemoved);
+    if (moved.index() == indexRemoved) {
+      bubbleUp(moved);
+    }
     return true;
   }
 
@@ -152,7 +155,8 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
   }
 
   private boolean contains(PriorityQueueNode node) {
-    return node.index() != INDEX_NOT_IN_QUEUE && node.equals(items[node.index()]);
+    int index = node.index();
+    return index != INDEX_NOT_IN_QUEUE && index < size && node.equals(items[index]);
   }
 
   @Override
@@ -183,61 +187,32 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
   private void bubbleDown(int i) {
     T node = items[i];
 
-    if (isLeaf(node)) {
-      return;
-    }
-
-    T left = leftChild(node);
-    T right = rightChild(node);
-
-    if (left == null) {
-      if (comparator.compare(node, right) <= 0) {
-        return;
-      }
-      swap(node.index(), right.index());
-      bubbleDown(node.index());
-      return;
-    }
-
-    if (right == null) {
-      if (comparator.compare(node, left) <= 0) {
+    while (!isLeaf(node)) {
+      T left = leftChild(node);
+      T right = rightChild(node);
+      T child = (right == null || comparator.compare(left, right) <= 0) ? left : right;
+      if (comparator.compare(node, child) <= 0) {
         return;
       }
-      swap(node.index(), left.index());
-      bubbleDown(node.index());
-      return;
+      swap(node.index(), child.index());
     }
-
-    if (comparator.compare(node, left) <= 0 && comparator.compare(node, right) <= 0) {
-      return;
-    }
-    if (comparator.compare(left, right) < 0) {
-      swap(node.index(), left.index());
-      bubbleDown(node.index());
-      return;
-    }
-    swap(node.index(), right.index());
-    bubbleDown(node.index());
   }
 
   private void bubbleUp(T node) {
     int current = node.index();
-    while (comparator.compare(node, parent(current)) < 0) {
+    while (current > 0 && comparator.compare(node, parent(current)) < 0) {
       int parentIndex = parent(current).index();
       swap(current, parentIndex);
       current = parentIndex;
     }
-
-    node.index(current);
   }
 
   private boolean isLeaf(T node) {
-    int idx = node.index();
-    return idx >= (size / 2) && idx <= size;
+    return (node.index() * 2) + 1 >= size;
   }
 
   private T parent(int i) {
-    return items[i / 2];
+    return items[(i - 1) >>> 1];
   }
 
   private T leftChild(T node) {
@@ -245,7 +220,8 @@ public class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQ
   }
 
   private T rightChild(T node) {
-    return items[(node.index() * 2) + 2];
+    int i = (node.index() * 2) + 2;
+    return i < size ? items[i] : null;
   }
 
   private void swap(int x, int y) {
@@ -0,0 +1,126 @@
+package io.el.internal;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lock-free histogram of non-negative {@code long} values, such as durations in nanoseconds.
+ *
+ * <p>Values are counted in buckets which grow exponentially: every power of two is split into
+ * {@value #SUB_BUCKETS} equal sub-buckets, so a reported value is at most 12.5% off from the
+ * recorded one, and the whole range of {@code long} fits in a few hundred counters. Recording is a
+ * couple of atomic increments and never allocates, reading is possible from any thread at any time
+ * and never blocks the recording thread.
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Non-negative values have at most 63 significant bits
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private static final AtomicLongFieldUpdater<Histogram> totalCountUpdater =
+      AtomicLongFieldUpdater.newUpdater(Histogram.class, "totalCount");
+  private static final AtomicLongFieldUpdater<Histogram> maxValueUpdater =
+      AtomicLongFieldUpdater.newUpdater(Histogram.class, "maxValue");
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private volatile long totalCount;
+  private volatile long maxValue;
+
+  /** Records {@code value}, a negative value is recorded as {@code 0}. */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.getAndIncrement(bucketIndex(value));
+    totalCountUpdater.getAndIncrement(this);
+    long max;
+    while (value > (max = maxValue)) {
+      if (maxValueUpdater.compareAndSet(this, max, value)) {
+        break;
+      }
+    }
+  }
+
+  /** Adds all values recorded by {@code other} to this histogram. */
+  public Histogram add(Histogram other) {
+    checkNotNull(other, "other");
+    for (int i = 0; i < BUCKETS; i++) {
+      long count = other.counts.get(i);
+      if (count != 0) {
+        counts.getAndAdd(i, count);
+        totalCountUpdater.getAndAdd(this, count);
+      }
+    }
+    long otherMax = other.maxValue;
+    long max;
+    while (otherMax > (max = maxValue)) {
+      if (maxValueUpdater.compareAndSet(this, max, otherMax)) {
+        break;
+      }
+    }
+    return this;
+  }
+
+  /** Returns the number of recorded values. */
+  public long count() {
+    return totalCount;
+  }
+
+  /** Returns the largest recorded value, or {@code 0} if nothing is recorded. */
+  public long max() {
+    return maxValue;
+  }
+
+  /**
+   * Returns the value which {@code percentile} percent of the recorded values are less than or
+   * equal to, or {@code 0} if nothing is recorded.
+   */
+  public long valueAtPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException(
+          "percentile: " + percentile + " (expected: 0 <= percentile <= 100)");
+    }
+    long total = totalCount;
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), maxValue);
+      }
+    }
+    return maxValue;
+  }
+
+  /** Clears all recorded values. Values recorded concurrently may be lost or kept. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    totalCount = 0;
+    maxValue = 0;
+  }
+
+  private static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
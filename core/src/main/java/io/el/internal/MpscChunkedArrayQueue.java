@@ -0,0 +1,250 @@
+package io.el.internal;
+
+import static io.el.internal.ObjectUtil.checkNotNull;
+import static io.el.internal.ObjectUtil.checkPositive;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free {@link MpscQueue} backed by a linked list of fixed size array chunks.
+ *
+ * <p>Producers claim a slot by incrementing the producer index and then publish the element into
+ * the chunk that owns the slot, linking a new chunk when the slot lies beyond the last one. So a
+ * node is allocated per {@code chunkSize} elements instead of per element. The consumer walks the
+ * chunks in order and lets go of a chunk once it has read all of its slots.
+ *
+ * <p>The queue is unbounded unless {@code capacity} is given, in which case {@link #offer(Object)}
+ * returns {@code false} once {@code capacity} elements are pending.
+ */
+public class MpscChunkedArrayQueue<E> extends AbstractQueue<E> implements MpscQueue<E> {
+
+  @SuppressWarnings("unchecked")
+  private static final Class<MpscChunkedArrayQueue<?>> QUEUE_CLASS =
+      (Class<MpscChunkedArrayQueue<?>>) (Class<?>) MpscChunkedArrayQueue.class;
+
+  @SuppressWarnings("unchecked")
+  private static final Class<Chunk<?>> CHUNK_CLASS = (Class<Chunk<?>>) (Class<?>) Chunk.class;
+
+  private static final AtomicLongFieldUpdater<MpscChunkedArrayQueue<?>> producerIndexUpdater =
+      AtomicLongFieldUpdater.newUpdater(QUEUE_CLASS, "producerIndex");
+  private static final AtomicLongFieldUpdater<MpscChunkedArrayQueue<?>> consumerIndexUpdater =
+      AtomicLongFieldUpdater.newUpdater(QUEUE_CLASS, "consumerIndex");
+  private static final AtomicReferenceFieldUpdater<MpscChunkedArrayQueue<?>, Chunk<?>>
+      producerChunkUpdater =
+          AtomicReferenceFieldUpdater.newUpdater(QUEUE_CLASS, CHUNK_CLASS, "producerChunk");
+
+  private final int chunkShift;
+  private final int chunkMask;
+  private final long capacity;
+
+  private volatile long producerIndex;
+  private volatile Chunk<E> producerChunk;
+  private volatile long consumerIndex;
+  private Chunk<E> consumerChunk;
+
+  /** Creates an unbounded queue. */
+  public MpscChunkedArrayQueue(int chunkSize) {
+    this(chunkSize, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a queue which holds at most {@code capacity} elements. {@code chunkSize} is rounded up
+   * to the next power of two.
+   */
+  public MpscChunkedArrayQueue(int chunkSize, long capacity) {
+    checkPositive(chunkSize, "chunkSize");
+    this.capacity = checkPositive(capacity, "capacity");
+    int size = chunkSize == 1 ? 1 : Integer.highestOneBit(chunkSize - 1) << 1;
+    this.chunkShift = Integer.numberOfTrailingZeros(size);
+    this.chunkMask = size - 1;
+    Chunk<E> first = new Chunk<>(0, size);
+    this.producerChunk = first;
+    this.consumerChunk = first;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    checkNotNull(e, "e");
+    // Read the chunk before claiming the slot, so the chunk can never be ahead of the slot.
+    Chunk<E> chunk = producerChunk;
+    long index;
+    if (capacity == Long.MAX_VALUE) {
+      index = producerIndexUpdater.getAndIncrement(this);
+    } else {
+      while (true) {
+        index = producerIndex;
+        if (index - consumerIndex >= capacity) {
+          return false;
+        }
+        if (producerIndexUpdater.compareAndSet(this, index, index + 1)) {
+          break;
+        }
+      }
+    }
+    chunk = producerChunk(chunk, index >>> chunkShift);
+    chunk.slots.lazySet((int) (index & chunkMask), e);
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean offerAll(Collection<? extends E> elements) {
+    checkNotNull(elements, "elements");
+    Object[] batch = elements.toArray();
+    int n = batch.length;
+    if (n == 0) {
+      return true;
+    }
+    // Check before claiming any slot, a claimed slot must always be published.
+    for (Object e : batch) {
+      checkNotNull(e, "e");
+    }
+    Chunk<E> chunk = producerChunk;
+    long index;
+    if (capacity == Long.MAX_VALUE) {
+      index = producerIndexUpdater.getAndAdd(this, n);
+    } else {
+      while (true) {
+        index = producerIndex;
+        if (index - consumerIndex > capacity - n) {
+          return false;
+        }
+        if (producerIndexUpdater.compareAndSet(this, index, index + n)) {
+          break;
+        }
+      }
+    }
+    for (Object e : batch) {
+      chunk = producerChunk(chunk, index >>> chunkShift);
+      chunk.slots.lazySet((int) (index & chunkMask), (E) e);
+      index += 1;
+    }
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    long index = consumerIndex;
+    E e = consumerSlot(index);
+    if (e == null) {
+      if (index == producerIndex) {
+        return null;
+      }
+      // The slot is claimed by a producer which did not publish the element yet.
+      do {
+        e = consumerSlot(index);
+      } while (e == null);
+    }
+    consumerChunk.slots.lazySet((int) (index & chunkMask), null);
+    consumerIndexUpdater.lazySet(this, index + 1);
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    long index = consumerIndex;
+    E e = consumerSlot(index);
+    if (e == null && index != producerIndex) {
+      do {
+        e = consumerSlot(index);
+      } while (e == null);
+    }
+    return e;
+  }
+
+  @Override
+  public int drain(Consumer<? super E> consumer, int limit) {
+    checkNotNull(consumer, "consumer");
+    long index = consumerIndex;
+    int drained = 0;
+    while (drained < limit) {
+      E e = consumerSlot(index);
+      if (e == null) {
+        break;
+      }
+      consumerChunk.slots.lazySet((int) (index & chunkMask), null);
+      index += 1;
+      // Publish the index before running the consumer, it may poll this queue again.
+      consumerIndexUpdater.lazySet(this, index);
+      drained += 1;
+      consumer.accept(e);
+    }
+    return drained;
+  }
+
+  @Override
+  public int size() {
+    long consumer = consumerIndex;
+    long size = producerIndex - consumer;
+    return (int) Math.min(Math.max(size, 0), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return consumerIndex == producerIndex;
+  }
+
+  /** Returns the maximum number of elements this queue holds. */
+  public long capacity() {
+    return capacity;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    throw new UnsupportedOperationException("iterator");
+  }
+
+  /** Returns the element at {@code index} if published, moving to the next chunk when needed. */
+  private E consumerSlot(long index) {
+    Chunk<E> chunk = consumerChunk;
+    if (chunk.index != index >>> chunkShift) {
+      Chunk<E> next = chunk.next;
+      if (next == null) {
+        return null;
+      }
+      consumerChunk = chunk = next;
+    }
+    return chunk.slots.get((int) (index & chunkMask));
+  }
+
+  /** Walks from {@code chunk} to the chunk numbered {@code chunkIndex}, linking new chunks. */
+  private Chunk<E> producerChunk(Chunk<E> chunk, long chunkIndex) {
+    while (chunk.index < chunkIndex) {
+      Chunk<E> next = chunk.next;
+      if (next == null) {
+        next = new Chunk<>(chunk.index + 1, chunkMask + 1);
+        if (!Chunk.nextUpdater.compareAndSet(chunk, null, next)) {
+          next = chunk.next;
+        }
+      }
+      chunk = next;
+    }
+    Chunk<E> current = producerChunk;
+    while (current.index < chunk.index
+        && !producerChunkUpdater.compareAndSet(this, current, chunk)) {
+      current = producerChunk;
+    }
+    return chunk;
+  }
+
+  private static final class Chunk<E> {
+
+    private static final AtomicReferenceFieldUpdater<Chunk<?>, Chunk<?>> nextUpdater =
+        AtomicReferenceFieldUpdater.newUpdater(CHUNK_CLASS, CHUNK_CLASS, "next");
+
+    private final long index;
+    private final AtomicReferenceArray<E> slots;
+    private volatile Chunk<E> next;
+
+    private Chunk(long index, int size) {
+      this.index = index;
+      this.slots = new AtomicReferenceArray<>(size);
+    }
+  }
+}
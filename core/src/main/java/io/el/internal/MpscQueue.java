@@ -0,0 +1,28 @@
+package io.el.internal;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Queue} which can be written by many producer threads but must be read by a single
+ * consumer thread only.
+ */
+public interface MpscQueue<E> extends Queue<E> {
+
+  /**
+   * Removes at most {@code limit} elements and passes them to {@code consumer} in FIFO order.
+   * Unlike {@link #poll()}, it does not wait for elements which are being added concurrently.
+   *
+   * @return the number of elements drained
+   */
+  int drain(Consumer<? super E> consumer, int limit);
+
+  /**
+   * Adds all {@code elements} in one go, so their order is kept and they are not interleaved with
+   * elements of other producers. Either all of them are added or none is.
+   *
+   * @return {@code false} if there is no room for all of them
+   */
+  boolean offerAll(Collection<? extends E> elements);
+}
@@ -0,0 +1,156 @@
+package io.el.internal;
+
+import static io.el.internal.ObjectUtil.checkPositiveOrZero;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A pool of objects which are taken and given back many times per second, such as task wrappers.
+ *
+ * <p>Each thread keeps the objects it took in a stack of at most {@code maxCapacityPerThread}
+ * objects. An object recycled by the thread which took it is pushed back to that stack with no
+ * synchronization at all. An object recycled by another thread, typically an event loop running a
+ * task someone else created, is added to a lock-free queue of the thread which took it, and moved
+ * to its stack the next time that stack runs dry. Objects which do not fit are left to the garbage
+ * collector, so the pool never grows past its bounds.
+ *
+ * <p>Only recycle an object nobody else refers to any more. With {@code maxCapacityPerThread} of
+ * {@code 0}, {@link #get()} always creates a new object.
+ */
+public abstract class Recycler<T> {
+
+  private static final int DEFAULT_MAX_CAPACITY_PER_THREAD =
+      Math.max(0, Integer.getInteger("io.el.recycler.maxCapacityPerThread", 4096));
+  private static final int RETURN_QUEUE_CHUNK_SIZE = 256;
+  private static final Handle<?> NOOP_HANDLE = object -> {};
+
+  private final int maxCapacityPerThread;
+  private final ThreadLocal<Stack<T>> stacks =
+      ThreadLocal.withInitial(() -> new Stack<>(this, Thread.currentThread()));
+
+  protected Recycler() {
+    this(DEFAULT_MAX_CAPACITY_PER_THREAD);
+  }
+
+  protected Recycler(int maxCapacityPerThread) {
+    this.maxCapacityPerThread =
+        (int) checkPositiveOrZero(maxCapacityPerThread, "maxCapacityPerThread");
+  }
+
+  /** Creates a new object which gives itself back through {@code handle} once it is not used. */
+  protected abstract T newObject(Handle<T> handle);
+
+  /** Returns a recycled object if the current thread has one, otherwise a new one. */
+  @SuppressWarnings("unchecked")
+  public final T get() {
+    if (maxCapacityPerThread == 0) {
+      return newObject((Handle<T>) NOOP_HANDLE);
+    }
+    Stack<T> stack = stacks.get();
+    DefaultHandle<T> handle = stack.pop();
+    if (handle == null) {
+      handle = new DefaultHandle<>(stack);
+      handle.value = newObject(handle);
+    }
+    handle.recycled = 0;
+    return handle.value;
+  }
+
+  public final int maxCapacityPerThread() {
+    return maxCapacityPerThread;
+  }
+
+  /** Gives an object back to the {@link Recycler} it came from. */
+  public interface Handle<T> {
+
+    /**
+     * Gives {@code object} back to be returned by a later {@link #get()}. It may be called from any
+     * thread, but only once per {@link #get()}.
+     */
+    void recycle(T object);
+  }
+
+  private static final class DefaultHandle<T> implements Handle<T> {
+
+    @SuppressWarnings("unchecked")
+    private static final AtomicIntegerFieldUpdater<DefaultHandle<?>> recycledUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(
+            (Class<DefaultHandle<?>>) (Class<?>) DefaultHandle.class, "recycled");
+
+    private final Stack<T> stack;
+    private T value;
+    private volatile int recycled;
+
+    DefaultHandle(Stack<T> stack) {
+      this.stack = stack;
+    }
+
+    @Override
+    public void recycle(T object) {
+      if (object != value) {
+        throw new IllegalArgumentException("object does not belong to handle");
+      }
+      if (!recycledUpdater.compareAndSet(this, 0, 1)) {
+        throw new IllegalStateException("recycled already");
+      }
+      stack.push(this);
+    }
+  }
+
+  private static final class Stack<T> {
+
+    private final Thread thread;
+    private final int maxCapacity;
+    // Objects recycled by other threads, moved to the stack by the owner thread
+    private final MpscQueue<DefaultHandle<T>> returned;
+    private DefaultHandle<?>[] elements;
+    private int size;
+
+    Stack(Recycler<T> parent, Thread thread) {
+      this.thread = thread;
+      this.maxCapacity = parent.maxCapacityPerThread;
+      this.returned =
+          new MpscChunkedArrayQueue<>(Math.min(RETURN_QUEUE_CHUNK_SIZE, maxCapacity), maxCapacity);
+      this.elements = new DefaultHandle<?>[Math.min(RETURN_QUEUE_CHUNK_SIZE, maxCapacity)];
+    }
+
+    @SuppressWarnings("unchecked")
+    DefaultHandle<T> pop() {
+      if (size == 0 && !moveReturned()) {
+        return null;
+      }
+      size -= 1;
+      DefaultHandle<T> handle = (DefaultHandle<T>) elements[size];
+      elements[size] = null;
+      return handle;
+    }
+
+    void push(DefaultHandle<T> handle) {
+      if (Thread.currentThread() != thread) {
+        // Dropped if the queue is full, the owner has plenty of objects then.
+        returned.offer(handle);
+        return;
+      }
+      if (size < maxCapacity) {
+        add(handle);
+      }
+    }
+
+    private boolean moveReturned() {
+      DefaultHandle<T> handle;
+      while (size < maxCapacity && (handle = returned.poll()) != null) {
+        add(handle);
+      }
+      return size > 0;
+    }
+
+    private void add(DefaultHandle<T> handle) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, Math.min(size << 1, maxCapacity));
+      }
+      elements[size] = handle;
+      size += 1;
+    }
+  }
+}
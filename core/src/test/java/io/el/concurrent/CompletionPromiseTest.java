@@ -0,0 +1,86 @@
+package io.el.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class CompletionPromiseTest {
+
+  private final EventLoop eventLoop = mock(EventLoop.class);
+
+  @BeforeEach
+  public void setup() {
+    when(eventLoop.inEventLoop()).thenReturn(true);
+  }
+
+  @Nested
+  @DisplayName("On run() method")
+  class RunMethod {
+
+    @Test
+    @DisplayName("When run, then the promise stays not done")
+    public void runDoesNothing() {
+      Promise<String> promise = new CompletionPromise<>(eventLoop);
+      promise.run();
+      assertFalse(promise.isDone());
+    }
+  }
+
+  @Nested
+  @DisplayName("On setSuccess() method")
+  class SetSuccessMethod {
+
+    @Test
+    @DisplayName("When set success, then notify listeners and return the value")
+    public void notifyListeners() throws Exception {
+      Promise<String> promise = new CompletionPromise<>(eventLoop);
+      AtomicInteger notified = new AtomicInteger();
+      promise.addListener(p -> notified.incrementAndGet());
+
+      promise.setSuccess("value");
+
+      assertEquals(1, notified.get());
+      assertTrue(promise.isSuccess());
+      assertEquals("value", promise.get());
+    }
+
+    @Test
+    @DisplayName("When set success from another thread, then wake up the waiter")
+    public void wakeUpWaiter() {
+      Promise<String> promise = new CompletionPromise<>(eventLoop);
+      new Thread(() -> promise.setSuccess("value")).start();
+
+      assertTimeout(Duration.ofSeconds(1), () -> promise.await());
+      assertTrue(promise.isSuccess());
+    }
+  }
+
+  @Nested
+  @DisplayName("On setFailure() method")
+  class SetFailureMethod {
+
+    @Test
+    @DisplayName("When set failure, then get() throws with the cause")
+    public void throwCause() {
+      Promise<String> promise = new CompletionPromise<>(eventLoop);
+      IllegalStateException cause = new IllegalStateException();
+
+      promise.setFailure(cause);
+
+      ExecutionException e = assertThrows(ExecutionException.class, promise::get);
+      assertEquals(cause, e.getCause());
+    }
+  }
+}
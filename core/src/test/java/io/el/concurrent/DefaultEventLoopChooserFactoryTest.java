@@ -0,0 +1,64 @@
+package io.el.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.el.concurrent.DefaultEventLoopChooserFactory.Policy;
+import io.el.concurrent.EventLoopChooserFactory.EventLoopChooser;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DefaultEventLoopChooserFactoryTest {
+
+  private static List<EventLoop> newLoops(int... pendingTasks) {
+    List<EventLoop> loops = new ArrayList<>();
+    for (int pending : pendingTasks) {
+      EventLoop loop = mock(EventLoop.class);
+      EventLoopMetrics metrics = mock(EventLoopMetrics.class);
+      when(loop.metrics()).thenReturn(metrics);
+      when(metrics.pendingTasks()).thenReturn(pending);
+      loops.add(loop);
+    }
+    return loops;
+  }
+
+  @Test
+  @DisplayName("When round robin, then take every loop in turn")
+  public void testRoundRobin() {
+    for (int size : new int[] {4, 3}) {
+      List<EventLoop> loops = newLoops(new int[size]);
+      EventLoopChooser chooser = new DefaultEventLoopChooserFactory().newChooser(loops);
+
+      for (int i = 0; i < size * 2; i++) {
+        assertSame(loops.get(i % size), chooser.next());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("When least pending tasks, then take the loop with fewest pending tasks")
+  public void testLeastPendingTasks() {
+    List<EventLoop> loops = newLoops(5, 3, 0, 7);
+    EventLoopChooser chooser =
+        new DefaultEventLoopChooserFactory(Policy.LEAST_PENDING_TASKS).newChooser(loops);
+
+    for (int i = 0; i < 8; i++) {
+      assertSame(loops.get(2), chooser.next());
+    }
+  }
+
+  @Test
+  @DisplayName("When power of two choices, then take the less loaded of two loops")
+  public void testPowerOfTwoChoices() {
+    List<EventLoop> loops = newLoops(9, 1);
+    EventLoopChooser chooser =
+        new DefaultEventLoopChooserFactory(Policy.POWER_OF_TWO_CHOICES).newChooser(loops);
+
+    for (int i = 0; i < 8; i++) {
+      assertSame(loops.get(1), chooser.next());
+    }
+  }
+}
@@ -14,10 +14,14 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -232,6 +236,76 @@ public class DefaultPromiseTest {
             assertFalse(promise.isSuccess());
           });
     }
+
+    @Test
+    @DisplayName("When timeout is below a millisecond, then wait no longer than needed")
+    public void testSubMillisecondTimeout() throws InterruptedException {
+      Promise<String> promise = new TestPromise<>(eventLoop, NOOP);
+      long start = System.nanoTime();
+      for (int i = 0; i < 100; i++) {
+        assertFalse(promise.await(100, TimeUnit.MICROSECONDS).isDone());
+      }
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    @DisplayName("When many threads await, then wake up all of them on completion")
+    public void testWakeUpAllWaiters() throws InterruptedException {
+      Promise<String> promise = new TestPromise<>(eventLoop, NOOP);
+      CountDownLatch started = new CountDownLatch(4);
+      CountDownLatch done = new CountDownLatch(4);
+      for (int i = 0; i < 4; i++) {
+        new Thread(
+                () -> {
+                  started.countDown();
+                  try {
+                    promise.await();
+                    done.countDown();
+                  } catch (InterruptedException e) {
+                    fail();
+                  }
+                })
+            .start();
+      }
+      started.await();
+      promise.setSuccess("done");
+      assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Nested
+  @DisplayName("On cancel() method")
+  class CancelMethod {
+
+    @Test
+    @DisplayName("When task not done, then cancel it and notify listeners")
+    public void testCancel() throws Exception {
+      AtomicInteger runs = new AtomicInteger(0);
+      Promise<String> promise = new TestPromise<>(eventLoop, runs::incrementAndGet);
+      PromiseListener listener = mock(PromiseListener.class);
+      promise.addListener(listener);
+
+      assertTrue(promise.cancel(false));
+      promise.run();
+
+      assertTrue(promise.isCancelled());
+      assertTrue(promise.isDone());
+      assertFalse(promise.isSuccess());
+      assertEquals(0, runs.get());
+      verify(listener, times(1)).onComplete(any(Promise.class));
+      assertThrows(CancellationException.class, promise::get);
+    }
+
+    @Test
+    @DisplayName("When task already done, then do not cancel it")
+    public void testCancelAfterDone() {
+      Promise<String> promise = new TestPromise<>(eventLoop, NOOP);
+      promise.setSuccess("result");
+
+      assertFalse(promise.cancel(false));
+      assertFalse(promise.isCancelled());
+      assertTrue(promise.isSuccess());
+    }
   }
 
   @Nested
@@ -272,4 +346,69 @@ public class DefaultPromiseTest {
           });
     }
   }
+
+  @Nested
+  @DisplayName("On combinator methods")
+  class CombinatorMethods {
+
+    @Test
+    @DisplayName("When chained promises succeed, then compose their results")
+    public void testChainSuccess() throws Exception {
+      Promise<Integer> promise = new TestPromise<>(eventLoop, NOOP);
+      Promise<String> other = new TestPromise<>(eventLoop, NOOP);
+      Promise<String> chained =
+          promise
+              .thenApply(value -> value + 1)
+              .thenCompose(value -> other.thenApply(s -> s + value));
+
+      promise.setSuccess(1);
+      assertFalse(chained.isDone());
+      other.setSuccess("value-");
+
+      assertEquals("value-2", chained.get());
+    }
+
+    @Test
+    @DisplayName("When upstream fails, then skip functions until exceptionally")
+    public void testChainFailure() throws Exception {
+      Promise<Integer> promise = new TestPromise<>(eventLoop, NOOP);
+      AtomicInteger accepted = new AtomicInteger();
+      Promise<Void> accept = promise.thenAccept(value -> accepted.incrementAndGet());
+      Promise<Integer> recovered = promise.thenApply(value -> value + 1).exceptionally(t -> -1);
+
+      promise.setFailure(new IllegalStateException());
+
+      assertEquals(0, accepted.get());
+      assertTrue(accept.cause() instanceof IllegalStateException);
+      assertEquals(-1, recovered.get());
+    }
+
+    @Test
+    @DisplayName("When all promises succeed, then all() succeeds with values in order")
+    public void testAll() throws Exception {
+      Promise<String> first = new TestPromise<>(eventLoop, NOOP);
+      Promise<String> second = new TestPromise<>(eventLoop, NOOP);
+      Promise<List<String>> all = Promise.all(eventLoop, Arrays.asList(first, second));
+
+      second.setSuccess("second");
+      assertFalse(all.isDone());
+      first.setSuccess("first");
+
+      assertEquals(Arrays.asList("first", "second"), all.get());
+    }
+
+    @Test
+    @DisplayName("When one promise succeeds, then any() succeeds with its value")
+    public void testAny() throws Exception {
+      Promise<String> first = new TestPromise<>(eventLoop, NOOP);
+      Promise<String> second = new TestPromise<>(eventLoop, NOOP);
+      Promise<String> any = Promise.any(eventLoop, Arrays.asList(first, second));
+
+      first.setFailure(new IllegalStateException());
+      assertFalse(any.isDone());
+      second.setSuccess("second");
+
+      assertEquals("second", any.get());
+    }
+  }
 }
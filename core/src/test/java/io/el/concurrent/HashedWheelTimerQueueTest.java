@@ -0,0 +1,118 @@
+package io.el.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import io.el.internal.Time;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class HashedWheelTimerQueueTest {
+
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final Runnable NOOP = () -> {};
+
+  private final EventLoop eventLoop = mock(EventLoop.class);
+
+  private ScheduledPromise<?> newPromise(long deadlineNanos) {
+    return new ScheduledPromise<>(eventLoop, NOOP, deadlineNanos);
+  }
+
+  @Test
+  public void testPollOnlyDuePromises() {
+    TimerQueue queue = new HashedWheelTimerQueue(TICK_NANOS, 8);
+    long now = Time.currentNanos();
+    ScheduledPromise<?> a = newPromise(now + 3 * TICK_NANOS);
+    ScheduledPromise<?> b = newPromise(now + TICK_NANOS);
+    queue.add(a);
+    queue.add(b);
+
+    assertEquals(2, queue.size());
+    assertEquals(b.deadlineNanos(), queue.nextDeadlineNanos());
+    assertNull(queue.poll(now));
+    assertSame(b, queue.poll(now + TICK_NANOS));
+    assertNull(queue.poll(now + 2 * TICK_NANOS));
+    assertEquals(a.deadlineNanos(), queue.nextDeadlineNanos());
+    assertSame(a, queue.poll(now + 5 * TICK_NANOS));
+    assertTrue(queue.isEmpty());
+    assertEquals(-1, queue.nextDeadlineNanos());
+  }
+
+  @Test
+  public void testFarFuturePromiseGoesToHeap() {
+    TimerQueue queue = new HashedWheelTimerQueue(TICK_NANOS, 8);
+    long now = Time.currentNanos();
+    ScheduledPromise<?> far = newPromise(now + 100 * TICK_NANOS);
+    ScheduledPromise<?> near = newPromise(now + 2 * TICK_NANOS);
+    queue.add(far);
+    queue.add(near);
+
+    assertEquals(near.deadlineNanos(), queue.nextDeadlineNanos());
+    assertSame(near, queue.poll(now + 50 * TICK_NANOS));
+    assertNull(queue.poll(now + 50 * TICK_NANOS));
+    assertSame(far, queue.poll(now + 100 * TICK_NANOS));
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testRemove() {
+    TimerQueue queue = new HashedWheelTimerQueue(TICK_NANOS, 8);
+    long now = Time.currentNanos();
+    ScheduledPromise<?> a = newPromise(now + TICK_NANOS);
+    ScheduledPromise<?> b = newPromise(now + TICK_NANOS);
+    ScheduledPromise<?> far = newPromise(now + 100 * TICK_NANOS);
+    queue.add(a);
+    queue.add(b);
+    queue.add(far);
+
+    assertTrue(queue.remove(a));
+    assertFalse(queue.remove(a));
+    assertTrue(queue.remove(far));
+    assertEquals(1, queue.size());
+    assertSame(b, queue.poll(now + 100 * TICK_NANOS));
+    assertNull(queue.poll(now + 100 * TICK_NANOS));
+  }
+
+  @Test
+  public void testAddEarlierAfterLater() {
+    TimerQueue queue = new HashedWheelTimerQueue(TICK_NANOS, 8);
+    long now = 1000 * TICK_NANOS;
+    ScheduledPromise<?> later = newPromise(now + 4 * TICK_NANOS);
+    ScheduledPromise<?> earlier = newPromise(now + TICK_NANOS);
+    queue.add(later);
+    queue.add(earlier);
+
+    assertNull(queue.poll(now));
+    assertSame(earlier, queue.poll(now + TICK_NANOS));
+    assertNull(queue.poll(now + 3 * TICK_NANOS));
+    assertSame(later, queue.poll(now + 4 * TICK_NANOS));
+
+    // Polling far ahead does not keep new promises from firing on time.
+    assertNull(queue.poll(Long.MAX_VALUE));
+    ScheduledPromise<?> next = newPromise(now + 5 * TICK_NANOS);
+    queue.add(next);
+    assertNull(queue.poll(now + 4 * TICK_NANOS));
+    assertSame(next, queue.poll(now + 5 * TICK_NANOS));
+  }
+
+  @Test
+  public void testClear() {
+    TimerQueue queue = new HashedWheelTimerQueue(TICK_NANOS, 8);
+    long now = Time.currentNanos();
+    ScheduledPromise<?> a = newPromise(now + TICK_NANOS);
+    queue.add(a);
+    queue.add(newPromise(now + 100 * TICK_NANOS));
+
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll(now + 100 * TICK_NANOS));
+
+    // A cleared promise can be added again
+    queue.add(a);
+    assertSame(a, queue.poll(now + 101 * TICK_NANOS));
+  }
+}
@@ -0,0 +1,111 @@
+package io.el.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class KeyedExecutorTest {
+
+  private static final int KEYS = 10000;
+
+  private static List<EventLoop> newLoops(int size) {
+    List<EventLoop> loops = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      loops.add(mock(EventLoop.class));
+    }
+    return loops;
+  }
+
+  @Test
+  @DisplayName("When the same key is given, then the tasks go to the same loop")
+  public void testSameKeySameLoop() {
+    List<EventLoop> loops = newLoops(4);
+    KeyedExecutor executor = new KeyedExecutor(loops);
+    Runnable first = () -> {};
+    Runnable second = () -> {};
+
+    executor.execute("account-42", first);
+    executor.execute("account-42", second);
+
+    EventLoop loop = executor.eventLoop("account-42");
+    verify(loop).execute(first);
+    verify(loop).execute(second);
+    for (EventLoop other : loops) {
+      if (other != loop) {
+        verify(other, never()).execute(first);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("When there are many keys, then every loop gets its share")
+  public void testSpread() {
+    List<EventLoop> loops = newLoops(4);
+    KeyedExecutor executor = new KeyedExecutor(loops);
+    int[] counts = new int[loops.size()];
+
+    for (int key = 0; key < KEYS; key++) {
+      counts[loops.indexOf(executor.eventLoop(key))] += 1;
+    }
+
+    for (int count : counts) {
+      assertTrue(Math.abs(count - KEYS / 4) < KEYS / 20, "count: " + count);
+    }
+  }
+
+  @Test
+  @DisplayName("When a loop is added, then only keys moving to it change their loop")
+  public void testResize() {
+    List<EventLoop> loops = newLoops(5);
+    KeyedExecutor smaller = new KeyedExecutor(loops.subList(0, 4));
+    KeyedExecutor larger = new KeyedExecutor(loops);
+    int moved = 0;
+
+    for (int i = 0; i < KEYS; i++) {
+      String key = "session-" + i;
+      EventLoop before = smaller.eventLoop(key);
+      EventLoop after = larger.eventLoop(key);
+      if (before != after) {
+        assertSame(loops.get(4), after);
+        moved += 1;
+      }
+    }
+
+    assertTrue(Math.abs(moved - KEYS / 5) < KEYS / 20, "moved: " + moved);
+  }
+
+  @Test
+  @DisplayName("When the same numeric key is given, then it maps like before")
+  public void testNumericKey() {
+    KeyedExecutor executor = new KeyedExecutor(newLoops(3));
+
+    for (long key = 0; key < 100; key++) {
+      assertSame(executor.eventLoop(key), executor.eventLoop(key));
+    }
+    assertEquals(0, KeyedExecutor.jumpHash(12345L, 1));
+  }
+
+  @Test
+  @DisplayName("When a stealable task or no loop is given, then it throws exception")
+  public void testInvalidArguments() {
+    KeyedExecutor executor = new KeyedExecutor(newLoops(2));
+
+    assertThrows(
+        IllegalArgumentException.class, () -> executor.execute("key", StealableTask.of(() -> {})));
+    assertThrows(
+        IllegalArgumentException.class, () -> executor.submit("key", StealableTask.of(() -> {})));
+    verify(executor.eventLoop("key"), never()).submit(any(Runnable.class));
+    assertThrows(IllegalArgumentException.class, () -> new KeyedExecutor(Collections.emptyList()));
+  }
+}
@@ -2,17 +2,30 @@ package io.el.concurrent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -113,6 +126,8 @@ public class SingleThreadEventLoopTest {
     }
   }
 
+  private static final Runnable NOOP_TASK = () -> {};
+
   private final SingleThreadEventLoop eventLoop =
       new SingleThreadEventLoop(new ThreadPerTaskExecutor(Executors.defaultThreadFactory())) {
         @Override
@@ -121,6 +136,8 @@ public class SingleThreadEventLoopTest {
             Runnable task = takeTask();
             if (task != null) {
               task.run();
+            } else {
+              idle();
             }
           }
         }
@@ -262,96 +279,1686 @@ public class SingleThreadEventLoopTest {
   }
 
   @Nested
-  @DisplayName("On shutdownGracefully() method")
-  class ShutdownGracefullyMethod {
+  @DisplayName("On executeAll() and submitAll() methods")
+  class ExecuteAllMethod {
 
     @Test
-    @DisplayName("When EventLoop shutdown gracefully and execute task, then throw exception")
-    public void testAddTaskAfterShutdown() {
-      CountDownLatch LATCH = new CountDownLatch(1);
+    @DisplayName("When EventLoop is given a batch of tasks, then execute them in order")
+    public void executeAll() {
+      CountDownLatch LATCH = new CountDownLatch(3);
       AtomicInteger ORDER = new AtomicInteger(0);
 
-      assertThrows(
-          RejectedExecutionException.class,
+      assertTimeout(
+          Duration.ofSeconds(1),
           () -> {
             try {
-              eventLoop.execute(new TestTask(LATCH, ORDER));
+              TestTask task1 = new TestTask(LATCH, ORDER);
+              TestTask task2 = new TestTask(LATCH, ORDER);
+              TestTask task3 = new TestTask(LATCH, ORDER);
+              eventLoop.executeAll(task1, task2, task3);
 
               LATCH.await();
 
-              assertTrue(eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS));
+              assertEquals(task1.order, 1);
+              assertEquals(task2.order, 2);
+              assertEquals(task3.order, 3);
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
 
-              eventLoop.execute(new TestTask(ORDER));
+    @Test
+    @DisplayName("When EventLoop is given a batch of callables, then return results in order")
+    public void submitAll() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              Promise<List<Integer>> promise =
+                  eventLoop.submitAll(
+                      Arrays.asList(
+                          new TestCallableTask(ORDER, 1),
+                          new TestCallableTask(ORDER, 2),
+                          new TestCallableTask(ORDER, 3)));
+
+              assertEquals(Arrays.asList(1, 2, 3), promise.get());
             } finally {
               eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
             }
           });
     }
+  }
+
+  @Nested
+  @DisplayName("On runTasks() method")
+  class RunTasksMethod {
+
+    private final SingleThreadEventLoop batchingEventLoop =
+        new SingleThreadEventLoop(new ThreadPerTaskExecutor(Executors.defaultThreadFactory())) {
+          @Override
+          protected void run() {
+            do {
+              if (runTasks() == 0) {
+                idle();
+              }
+            } while (!confirmShutdown());
+          }
+        };
 
     @Test
-    @DisplayName(
-        "When EventLoop shutdownGracefully, then before timeout, its state is not SHUTDOWN")
-    public void testShutdown() throws InterruptedException {
-      try {
-        assertTrue(eventLoop.shutdownGracefully(200, TimeUnit.MILLISECONDS));
+    @DisplayName("When scheduled and immediate tasks are due, then share each iteration by ratio")
+    public void shareIterationByRatio() {
+      CountDownLatch LATCH = new CountDownLatch(8);
+      List<String> runs = new ArrayList<>();
+      batchingEventLoop.maxTasksPerIteration(4).scheduledTaskRatio(0.5);
 
-        Thread.sleep(100);
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              batchingEventLoop.execute(
+                  () -> {
+                    for (int i = 0; i < 4; i++) {
+                      batchingEventLoop.schedule(
+                          () -> {
+                            runs.add("scheduled");
+                            LATCH.countDown();
+                          },
+                          0,
+                          TimeUnit.NANOSECONDS);
+                      batchingEventLoop.execute(
+                          () -> {
+                            runs.add("immediate");
+                            LATCH.countDown();
+                          });
+                    }
+                  });
 
-        assertFalse(eventLoop.isShutdown());
-      } finally {
-        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
-      }
+              LATCH.await();
+
+              // The first iteration runs the task above and three immediate tasks, the next one
+              // runs only two of the due scheduled tasks, so the last immediate task is not
+              // delayed by them.
+              assertEquals(
+                  Arrays.asList(
+                      "immediate",
+                      "immediate",
+                      "immediate",
+                      "scheduled",
+                      "scheduled",
+                      "immediate",
+                      "scheduled",
+                      "scheduled"),
+                  runs);
+              assertEquals(1, batchingEventLoop.taskBudgetExhaustions());
+              assertEquals(1, batchingEventLoop.scheduledTaskBudgetExhaustions());
+            } finally {
+              batchingEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
     }
 
     @Test
-    @DisplayName("When EventLoop shutdownGracefully, then remove all scheduled tasks")
-    public void testRemoveAllScheduledTasks() throws InterruptedException {
+    @DisplayName("When time budget is used up, then leave remaining tasks for next iteration")
+    public void stopOnTimeBudget() {
+      CountDownLatch LATCH = new CountDownLatch(100);
+      batchingEventLoop.iterationTimeBudget(10, TimeUnit.MILLISECONDS);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              Runnable slowTask =
+                  () -> {
+                    try {
+                      Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                      // NO-OP
+                    }
+                    LATCH.countDown();
+                  };
+              // The clock is read every 64 tasks, so the budget stops the first iteration there.
+              batchingEventLoop.executeAll(Collections.nCopies(100, slowTask));
+
+              LATCH.await();
+
+              assertEquals(1, batchingEventLoop.timeBudgetExhaustions());
+            } finally {
+              batchingEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On metrics() method")
+  class MetricsMethod {
+
+    @Test
+    @DisplayName("When task timings are recorded, then metrics report executed tasks and timings")
+    public void recordTaskTimings() {
+      CountDownLatch LATCH = new CountDownLatch(1);
       AtomicInteger ORDER = new AtomicInteger(0);
+      eventLoop.recordTaskTimings(true);
 
-      try {
-        // Although task1 is scheduled to run after 100ms (which is < 200ms), event loop updates its
-        // state into SHUTTING_DOWN right after calling shutdownGracefully() and remove all
-        // scheduled
-        // tasks. So task1 is not running.
-        TestTask task1 = new TestTask(ORDER);
-        ScheduledPromise scheduledPromise1 = eventLoop.schedule(task1, 100, TimeUnit.MILLISECONDS);
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.execute(new TimeTakingTask(10));
+              eventLoop.execute(new TestTask(LATCH, ORDER));
 
-        TestTask task2 = new TestTask(ORDER);
-        ScheduledPromise scheduledPromise2 = eventLoop.schedule(task2, 300, TimeUnit.MILLISECONDS);
+              LATCH.await();
+              // The second task records its run time before the loop runs this one.
+              eventLoop.submit(NOOP_TASK).get();
+
+              EventLoopMetrics metrics = eventLoop.metrics();
+              assertEquals(3, metrics.executedTasks());
+              assertEquals(0, metrics.pendingTasks());
+              assertTrue(metrics.runTime().count() >= 2);
+              assertTrue(metrics.runTime().max() >= TimeUnit.MILLISECONDS.toNanos(10) * 7 / 8);
+              assertTrue(
+                  metrics.queueingDelay().max() >= TimeUnit.MILLISECONDS.toNanos(10) * 7 / 8);
+              assertTrue(metrics.busyRatio() > 0);
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
 
-        assertTrue(eventLoop.shutdownGracefully(200, TimeUnit.MILLISECONDS));
+    @Test
+    @DisplayName("When tasks are dropped on shutdown, then they are not counted as executed")
+    public void dropOnShutdown() {
+      CountDownLatch STARTED = new CountDownLatch(1);
+      CountDownLatch BLOCKER = new CountDownLatch(1);
+      SingleThreadEventLoop droppingEventLoop =
+          new SingleThreadEventLoop(new ThreadPerTaskExecutor(Executors.defaultThreadFactory())) {
+            @Override
+            protected void run() {
+              while (!isShuttingDown()) {
+                Runnable task = takeTask();
+                if (task != null) {
+                  task.run();
+                } else {
+                  idle();
+                }
+              }
+            }
 
-        Thread.sleep(300);
+            @Override
+            protected boolean confirmShutdown() {
+              // Leave the tasks in the queue to be dropped.
+              return isShuttingDown();
+            }
+          };
 
-        assertFalse(scheduledPromise1.isDone());
-        assertFalse(scheduledPromise2.isDone());
-        assertTrue(eventLoop.isShutdown());
-      } finally {
-        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              droppingEventLoop.execute(
+                  () -> {
+                    STARTED.countDown();
+                    try {
+                      BLOCKER.await();
+                    } catch (InterruptedException e) {
+                      // NO-OP
+                    }
+                  });
+              STARTED.await();
+              droppingEventLoop.executeAll(NOOP_TASK, NOOP_TASK, NOOP_TASK);
+              droppingEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+              BLOCKER.countDown();
+
+              assertTrue(droppingEventLoop.awaitTermination(500, TimeUnit.MILLISECONDS));
+              assertEquals(1, droppingEventLoop.metrics().executedTasks());
+            } finally {
+              BLOCKER.countDown();
+              droppingEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On execute() method with a priority")
+  class PriorityExecuteMethod {
+
+    /** Runs a task which waits for {@code BLOCKER}, and returns once the loop took it. */
+    private void blockEventLoop(CountDownLatch BLOCKER) throws InterruptedException {
+      CountDownLatch STARTED = new CountDownLatch(1);
+      eventLoop.execute(
+          () -> {
+            STARTED.countDown();
+            try {
+              BLOCKER.await();
+            } catch (InterruptedException e) {
+              // NO-OP
+            }
+          });
+      STARTED.await();
+    }
+
+    private void executeAll(List<Priority> ran, CountDownLatch LATCH, int tasksPerLane) {
+      for (Priority priority : Arrays.asList(Priority.LOW, Priority.NORMAL, Priority.HIGH)) {
+        for (int i = 0; i < tasksPerLane; i++) {
+          eventLoop.execute(
+              () -> {
+                ran.add(priority);
+                LATCH.countDown();
+              },
+              priority);
+        }
       }
     }
 
     @Test
-    @DisplayName("When EventLoop shutdownGracefully, then run existing tasks")
-    public void testRunRemainingTasks2() throws InterruptedException {
-      try {
-        TimeTakingTask task1 = new TimeTakingTask(50);
-        eventLoop.execute(task1);
+    @DisplayName("When the lanes are strict, then higher lanes run first")
+    public void strictPriority() {
+      CountDownLatch BLOCKER = new CountDownLatch(1);
+      CountDownLatch LATCH = new CountDownLatch(6);
+      List<Priority> ran = new CopyOnWriteArrayList<>();
 
-        // Although task2 has longer duration than timeout, it runs.
-        TimeTakingTask task2 = new TimeTakingTask(200);
-        eventLoop.execute(task2);
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              blockEventLoop(BLOCKER);
+              executeAll(ran, LATCH, 2);
 
-        assertTrue(eventLoop.shutdownGracefully(100, TimeUnit.MILLISECONDS));
+              EventLoopMetrics metrics = eventLoop.metrics();
+              assertEquals(2, metrics.pendingTasks(Priority.HIGH));
+              assertEquals(2, metrics.pendingTasks(Priority.LOW));
+              assertEquals(6, metrics.pendingTasks());
 
-        Thread.sleep(300);
+              BLOCKER.countDown();
+              LATCH.await();
+              assertEquals(
+                  Arrays.asList(
+                      Priority.HIGH,
+                      Priority.HIGH,
+                      Priority.NORMAL,
+                      Priority.NORMAL,
+                      Priority.LOW,
+                      Priority.LOW),
+                  ran);
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
 
-        assertTrue(task1.ran);
-        assertTrue(task2.ran);
-        assertTrue(eventLoop.isShutdown());
-      } finally {
-        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
-      }
+    @Test
+    @DisplayName("When the lanes are weighted, then every lane gets its share")
+    public void weightedPriority() {
+      CountDownLatch BLOCKER = new CountDownLatch(1);
+      CountDownLatch LATCH = new CountDownLatch(12);
+      List<Priority> ran = new CopyOnWriteArrayList<>();
+      eventLoop.weightedPriority(2, 1, 1);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              blockEventLoop(BLOCKER);
+              executeAll(ran, LATCH, 4);
+
+              BLOCKER.countDown();
+              LATCH.await();
+              List<Priority> firstRound = ran.subList(0, 8);
+              assertEquals(4, Collections.frequency(firstRound, Priority.HIGH));
+              assertEquals(2, Collections.frequency(firstRound, Priority.NORMAL));
+              assertEquals(2, Collections.frequency(firstRound, Priority.LOW));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a scheduled task is given a priority, then it throws exception")
+    public void scheduledTaskWithPriority() {
+      ScheduledPromise<?> promise =
+          new ScheduledPromise<>(eventLoop, NOOP_TASK, eventLoop.deadlineNanos(0));
+
+      assertThrows(IllegalArgumentException.class, () -> eventLoop.execute(promise, Priority.HIGH));
+    }
+  }
+
+  @Nested
+  @DisplayName("On rejectionPolicy() and watermarks() methods")
+  class RejectionPolicyMethod {
+
+    private final SingleThreadEventLoop boundedEventLoop =
+        new SingleThreadEventLoop(
+            new ThreadPerTaskExecutor(Executors.defaultThreadFactory()),
+            new ParkingIdleStrategy(),
+            2) {
+          @Override
+          protected void run() {
+            while (!confirmShutdown()) {
+              Runnable task = takeTask();
+              if (task != null) {
+                task.run();
+              } else {
+                idle();
+              }
+            }
+          }
+        };
+
+    private final CountDownLatch STARTED = new CountDownLatch(1);
+    private final CountDownLatch BLOCKER = new CountDownLatch(1);
+
+    private void blockEventLoop() throws InterruptedException {
+      boundedEventLoop.execute(
+          () -> {
+            STARTED.countDown();
+            try {
+              BLOCKER.await();
+            } catch (InterruptedException e) {
+              // NO-OP
+            }
+          });
+      STARTED.await();
+    }
+
+    @Test
+    @DisplayName("When a lane is full by default, then it throws exception")
+    public void abort() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              blockEventLoop();
+              boundedEventLoop.execute(NOOP_TASK);
+              boundedEventLoop.execute(NOOP_TASK);
+
+              assertThrows(
+                  RejectedExecutionException.class, () -> boundedEventLoop.execute(NOOP_TASK));
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When dropping the newest task, then it is cancelled and counted")
+    public void dropNewest() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.dropNewest());
+              blockEventLoop();
+              Promise<?> first = boundedEventLoop.submit(NOOP_TASK);
+              boundedEventLoop.submit(NOOP_TASK);
+              Promise<?> dropped = boundedEventLoop.submit(NOOP_TASK);
+
+              assertTrue(dropped.isCancelled());
+              assertEquals(1, boundedEventLoop.metrics().droppedTasks());
+              BLOCKER.countDown();
+              first.get();
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When dropping the oldest task, then the newest one runs instead")
+    public void dropOldest() {
+      List<Integer> ran = new CopyOnWriteArrayList<>();
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.dropOldest());
+              blockEventLoop();
+              Promise<?> oldest = boundedEventLoop.submit(() -> ran.add(1));
+              boundedEventLoop.submit(() -> ran.add(2));
+              Promise<?> newest = boundedEventLoop.submit(() -> ran.add(3));
+
+              BLOCKER.countDown();
+              newest.get();
+              assertTrue(oldest.isCancelled());
+              assertEquals(Arrays.asList(2, 3), ran);
+              assertEquals(1, boundedEventLoop.metrics().droppedTasks());
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When spilling, then every task runs in order")
+    public void spill() {
+      List<Integer> ran = new CopyOnWriteArrayList<>();
+      CountDownLatch LATCH = new CountDownLatch(5);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.spill());
+              blockEventLoop();
+              for (int i = 0; i < 5; i++) {
+                int id = i;
+                boundedEventLoop.execute(
+                    () -> {
+                      ran.add(id);
+                      LATCH.countDown();
+                    });
+              }
+
+              assertEquals(5, boundedEventLoop.metrics().pendingTasks(Priority.NORMAL));
+              BLOCKER.countDown();
+              LATCH.await();
+              assertEquals(Arrays.asList(0, 1, 2, 3, 4), ran);
+              assertEquals(0, boundedEventLoop.pendingTasks());
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a batch does not fit, then the policy handles the tasks which do not fit")
+    public void executeAllWithPolicy() {
+      List<Integer> ran = new CopyOnWriteArrayList<>();
+      CountDownLatch LATCH = new CountDownLatch(4);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.spill());
+              blockEventLoop();
+              List<Runnable> tasks = new ArrayList<>();
+              for (int i = 0; i < 4; i++) {
+                int id = i;
+                tasks.add(
+                    () -> {
+                      ran.add(id);
+                      LATCH.countDown();
+                    });
+              }
+              boundedEventLoop.executeAll(tasks);
+
+              assertEquals(4, boundedEventLoop.pendingTasks());
+              BLOCKER.countDown();
+              LATCH.await();
+              assertEquals(Arrays.asList(0, 1, 2, 3), ran);
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a batch does not fit by default, then reject all of its tasks")
+    public void executeAllAbort() {
+      AtomicInteger runs = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              blockEventLoop();
+              assertThrows(
+                  RejectedExecutionException.class,
+                  () ->
+                      boundedEventLoop.executeAll(
+                          Collections.nCopies(3, (Runnable) runs::incrementAndGet)));
+
+              assertEquals(0, boundedEventLoop.pendingTasks());
+              BLOCKER.countDown();
+              boundedEventLoop.submit(NOOP_TASK).get();
+              assertEquals(0, runs.get());
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a batch does not fit and the policy throws, then keep the tasks before")
+    public void executeAllPartially() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.block(10, TimeUnit.MILLISECONDS));
+              blockEventLoop();
+              assertThrows(
+                  RejectedExecutionException.class,
+                  () -> boundedEventLoop.executeAll(NOOP_TASK, NOOP_TASK, NOOP_TASK));
+
+              assertEquals(2, boundedEventLoop.pendingTasks());
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a batch reaches the high watermark, then the listener is notified")
+    public void executeAllCrossesWatermark() {
+      List<Boolean> overloads = new CopyOnWriteArrayList<>();
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.watermarks(
+                  0, 2, (eventLoop, overloaded) -> overloads.add(overloaded));
+              blockEventLoop();
+              boundedEventLoop.executeAll(NOOP_TASK, NOOP_TASK);
+
+              assertTrue(boundedEventLoop.isOverloaded());
+              assertEquals(Collections.singletonList(true), overloads);
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When the caller runs rejected tasks, then it runs them on its own thread")
+    public void callerRuns() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.callerRuns());
+              blockEventLoop();
+              boundedEventLoop.execute(NOOP_TASK);
+              boundedEventLoop.execute(NOOP_TASK);
+              List<Thread> threads = new ArrayList<>();
+              boundedEventLoop.execute(() -> threads.add(Thread.currentThread()));
+
+              assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When blocking, then the caller waits until the lane has room or times out")
+    public void blockUntilRoom() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.block(50, TimeUnit.MILLISECONDS));
+              blockEventLoop();
+              boundedEventLoop.execute(NOOP_TASK);
+              boundedEventLoop.execute(NOOP_TASK);
+
+              assertThrows(
+                  RejectedExecutionException.class, () -> boundedEventLoop.execute(NOOP_TASK));
+
+              boundedEventLoop.rejectionPolicy(RejectionPolicy.block(1, TimeUnit.SECONDS));
+              new Thread(
+                      () -> {
+                        try {
+                          Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                          // NO-OP
+                        }
+                        BLOCKER.countDown();
+                      })
+                  .start();
+              boundedEventLoop.submit(NOOP_TASK).get();
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When pending tasks cross the watermarks, then the listener is notified")
+    public void watermarks() {
+      List<Boolean> overloads = new CopyOnWriteArrayList<>();
+      CountDownLatch LATCH = new CountDownLatch(2);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              boundedEventLoop
+                  .rejectionPolicy(RejectionPolicy.spill())
+                  .watermarks(
+                      0,
+                      3,
+                      (eventLoop, overloaded) -> {
+                        overloads.add(overloaded);
+                        LATCH.countDown();
+                      });
+              blockEventLoop();
+              boundedEventLoop.execute(NOOP_TASK);
+              boundedEventLoop.execute(NOOP_TASK);
+              assertFalse(boundedEventLoop.isOverloaded());
+              boundedEventLoop.execute(NOOP_TASK);
+              assertTrue(boundedEventLoop.isOverloaded());
+
+              BLOCKER.countDown();
+              LATCH.await();
+              assertEquals(Arrays.asList(true, false), overloads);
+              assertFalse(boundedEventLoop.isOverloaded());
+            } finally {
+              BLOCKER.countDown();
+              boundedEventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On StallWatchdog")
+  class StallWatchdogTest {
+
+    private final List<StallReport> reports = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("When a task blocks EventLoop, then report it once with its stack trace")
+    public void reportStall() {
+      StallWatchdog watchdog =
+          new StallWatchdog(50, TimeUnit.MILLISECONDS, reports::add)
+              .minReportInterval(0, TimeUnit.MILLISECONDS)
+              .watch(eventLoop);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.submit(new TimeTakingTask(300)).get();
+
+              assertEquals(1, reports.size());
+              StallReport report = reports.get(0);
+              assertEquals(DefaultPromise.class, report.taskClass());
+              assertTrue(report.elapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+              assertTrue(
+                  Arrays.stream(report.stackTrace())
+                      .anyMatch(e -> e.getClassName().equals(TimeTakingTask.class.getName())));
+            } finally {
+              watchdog.close();
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When task timings are recorded, then report the task, not its wrapper")
+    public void reportUnwrappedTask() {
+      eventLoop.recordTaskTimings(true);
+      TimeTakingTask task = new TimeTakingTask(150);
+      StallWatchdog watchdog =
+          new StallWatchdog(50, TimeUnit.MILLISECONDS, reports::add)
+              .minReportInterval(0, TimeUnit.MILLISECONDS)
+              .watch(eventLoop);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              CountDownLatch LATCH = new CountDownLatch(1);
+              eventLoop.execute(task);
+              eventLoop.execute(LATCH::countDown);
+              LATCH.await();
+
+              assertEquals(1, reports.size());
+              assertSame(task, reports.get(0).task());
+            } finally {
+              watchdog.close();
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When tasks block EventLoop often, then limit the reports")
+    public void limitReports() {
+      StallWatchdog watchdog =
+          new StallWatchdog(20, TimeUnit.MILLISECONDS, reports::add)
+              .minReportInterval(1, TimeUnit.HOURS)
+              .watch(eventLoop);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.submit(new TimeTakingTask(100)).get();
+              eventLoop.submit(new TimeTakingTask(100)).get();
+
+              assertEquals(1, reports.size());
+            } finally {
+              watchdog.close();
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On StealableTask")
+  class StealableTaskTest {
+
+    private final AbstractEventLoopGroup group =
+        new AbstractEventLoopGroup(2, null, DefaultEventLoopChooserFactory.Policy.ROUND_ROBIN) {
+          @Override
+          protected EventLoop newChild(Executor executor) {
+            return new SingleThreadEventLoop(executor) {
+              @Override
+              protected void run() {
+                do {
+                  if (runTasks() == 0) {
+                    idle();
+                  }
+                } while (!confirmShutdown());
+              }
+            };
+          }
+
+          @Override
+          protected ThreadFactory newDefaultThreadFactory() {
+            return Executors.defaultThreadFactory();
+          }
+        };
+
+    @Test
+    @DisplayName("When EventLoop is blocked, then idle sibling steals its stealable tasks")
+    public void stealFromBlockedEventLoop() {
+      CountDownLatch BLOCKER = new CountDownLatch(1);
+      CountDownLatch LATCH = new CountDownLatch(2);
+      AtomicInteger ORDER = new AtomicInteger(0);
+      Iterator<EventLoop> loops = group.iterator();
+      EventLoop busy = loops.next();
+      EventLoop idle = loops.next();
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              // Let the sibling start and park.
+              idle.submit(NOOP_TASK).get();
+              busy.execute(
+                  () -> {
+                    try {
+                      BLOCKER.await();
+                    } catch (InterruptedException e) {
+                      // NO-OP
+                    }
+                  });
+              busy.execute(StealableTask.of(new TestTask(LATCH, ORDER)));
+              Promise<?> promise = busy.submit(StealableTask.of(new TestTask(LATCH, ORDER)));
+
+              assertTrue(LATCH.await(500, TimeUnit.MILLISECONDS));
+              promise.get();
+              assertEquals(2, idle.metrics().stolenTasks());
+              assertEquals(2, group.metrics().stolenTasks());
+            } finally {
+              BLOCKER.countDown();
+              group.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On invokeAll() and invokeAny() methods")
+  class InvokeMethod {
+
+    @Test
+    @DisplayName("When EventLoop invokes all callables, then return promises in order")
+    public void invokeAll() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              List<Future<Integer>> futures =
+                  eventLoop.invokeAll(
+                      Arrays.asList(
+                          new TestCallableTask(ORDER, 1), new TestCallableTask(ORDER, 2)));
+
+              assertTrue(futures.get(0) instanceof Promise);
+              assertEquals(1, futures.get(0).get());
+              assertEquals(2, futures.get(1).get());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When callables do not finish within timeout, then cancel them")
+    public void invokeAllWithTimeout() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              List<Future<Integer>> futures =
+                  eventLoop.invokeAll(
+                      Arrays.asList(
+                          new TestCallableTask(ORDER, 1),
+                          new TimeTakingCallableTask(ORDER, 500, 2),
+                          new TestCallableTask(ORDER, 3)),
+                      100,
+                      TimeUnit.MILLISECONDS);
+
+              assertEquals(1, futures.get(0).get());
+              assertTrue(futures.get(1).isCancelled());
+              assertTrue(futures.get(2).isCancelled());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When one callable succeeds, then invokeAny returns it and cancels the others")
+    public void invokeAny() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+      TestCallableTask skipped = new TestCallableTask(ORDER, 3);
+      // submitAny() cancels the losers from a listener it adds after submitting them all. A free
+      // loop may run every task before that, and then running skipped is correct, so hold the loop
+      // until submitAny() returned.
+      CountDownLatch BLOCKER = new CountDownLatch(1);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.execute(
+                  () -> {
+                    try {
+                      BLOCKER.await();
+                    } catch (InterruptedException e) {
+                      // NO-OP
+                    }
+                  });
+              Callable<Integer> failing =
+                  () -> {
+                    throw new IllegalStateException();
+                  };
+              Promise<Integer> promise =
+                  eventLoop.submitAny(
+                      Arrays.asList(failing, new TestCallableTask(ORDER, 2), skipped));
+              BLOCKER.countDown();
+
+              assertEquals(2, promise.get());
+              assertEquals(0, skipped.order);
+            } finally {
+              BLOCKER.countDown();
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When no callable succeeds within timeout, then throw TimeoutException")
+    public void invokeAnyWithTimeout() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              assertThrows(
+                  TimeoutException.class,
+                  () ->
+                      eventLoop.invokeAny(
+                          Arrays.asList(new TimeTakingCallableTask(ORDER, 300, 1)),
+                          50,
+                          TimeUnit.MILLISECONDS));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a group is invoked from one of its event loops, then it throws exception")
+    public void invokeGroupFromItsEventLoop() {
+      AbstractEventLoopGroup group =
+          new AbstractEventLoopGroup(2, null, (EventLoopChooserFactory) null) {
+            @Override
+            protected EventLoop newChild(Executor executor) {
+              return new SingleThreadEventLoop(executor) {
+                @Override
+                protected void run() {
+                  do {
+                    if (runTasks() == 0) {
+                      idle();
+                    }
+                  } while (!confirmShutdown());
+                }
+              };
+            }
+
+            @Override
+            protected ThreadFactory newDefaultThreadFactory() {
+              return Executors.defaultThreadFactory();
+            }
+          };
+      List<Callable<Integer>> tasks = Collections.singletonList(() -> 1);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              List<Class<?>> thrown =
+                  group
+                      .next()
+                      .submit(
+                          () -> {
+                            List<Class<?>> errors = new ArrayList<>();
+                            List<Callable<Object>> invocations =
+                                Arrays.asList(
+                                    () -> group.invokeAll(tasks),
+                                    () -> group.invokeAll(tasks, 1, TimeUnit.SECONDS),
+                                    () -> group.invokeAny(tasks),
+                                    () -> group.invokeAny(tasks, 1, TimeUnit.SECONDS));
+                            for (Callable<Object> invocation : invocations) {
+                              try {
+                                invocation.call();
+                              } catch (Exception e) {
+                                errors.add(e.getClass());
+                              }
+                            }
+                            return errors;
+                          })
+                      .get();
+
+              assertEquals(Collections.nCopies(4, IllegalStateException.class), thrown);
+              assertEquals(1, group.invokeAny(tasks));
+            } finally {
+              group.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On schedule() method")
+  class ScheduleMethod {
+
+    @Test
+    @DisplayName("When many threads schedule at once, then every task runs not before its deadline")
+    public void scheduleFromManyThreads() {
+      int threads = 4;
+      int tasksPerThread = 500;
+      CountDownLatch LATCH = new CountDownLatch(threads * tasksPerThread);
+      AtomicInteger EARLY = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(2),
+          () -> {
+            try {
+              eventLoop.submit(NOOP_TASK).get();
+              List<Thread> schedulers = new ArrayList<>();
+              for (int i = 0; i < threads; i++) {
+                Thread thread =
+                    new Thread(
+                        () -> {
+                          for (int j = 0; j < tasksPerThread; j++) {
+                            long delayNanos = TimeUnit.MICROSECONDS.toNanos(j % 50 * 100);
+                            long deadlineNanos = System.nanoTime() + delayNanos;
+                            eventLoop.schedule(
+                                () -> {
+                                  if (System.nanoTime() < deadlineNanos) {
+                                    EARLY.incrementAndGet();
+                                  }
+                                  LATCH.countDown();
+                                },
+                                delayNanos,
+                                TimeUnit.NANOSECONDS);
+                          }
+                        });
+                schedulers.add(thread);
+                thread.start();
+              }
+              for (Thread thread : schedulers) {
+                thread.join();
+              }
+
+              LATCH.await();
+              assertEquals(0, EARLY.get());
+              assertEquals(0, eventLoop.metrics().pendingScheduledTasks());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On coarseClock() method")
+  class CoarseClockMethod {
+
+    @Test
+    @DisplayName("When the clock is coarse, then nanoTime() stays the same within an iteration")
+    public void cachedWithinIteration() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.coarseClock(true);
+              List<Long> nanoTimes =
+                  eventLoop
+                      .submit(
+                          () -> {
+                            long first = eventLoop.nanoTime();
+                            Thread.sleep(5);
+                            long second = eventLoop.nanoTime();
+                            long precise = eventLoop.preciseNanoTime();
+                            return Arrays.asList(first, second, precise, eventLoop.nanoTime());
+                          })
+                      .get();
+
+              assertEquals(nanoTimes.get(0), nanoTimes.get(1));
+              assertTrue(nanoTimes.get(2) - nanoTimes.get(1) >= TimeUnit.MILLISECONDS.toNanos(5));
+              assertEquals(nanoTimes.get(2), nanoTimes.get(3));
+
+              long outside = eventLoop.nanoTime();
+              Thread.sleep(1);
+              assertTrue(eventLoop.nanoTime() > outside);
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When the clock is coarse, then scheduled tasks still run")
+    public void scheduleWithCoarseClock() {
+      CountDownLatch LATCH = new CountDownLatch(3);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.coarseClock(true);
+              eventLoop.schedule(LATCH::countDown, 10, TimeUnit.MILLISECONDS);
+              eventLoop.execute(
+                  () -> eventLoop.schedule(LATCH::countDown, 20, TimeUnit.MILLISECONDS));
+              ScheduledPromise<?> periodic =
+                  eventLoop.scheduleWithFixedDelay(LATCH::countDown, 0, 5, TimeUnit.MILLISECONDS);
+
+              LATCH.await();
+              periodic.cancel(false);
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On periodic schedule methods")
+  class PeriodicScheduleMethod {
+
+    @Test
+    @DisplayName("When EventLoop schedules at fixed rate, then run task repeatedly")
+    public void scheduleAtFixedRate() {
+      CountDownLatch LATCH = new CountDownLatch(3);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              ScheduledPromise<?> promise =
+                  eventLoop.scheduleAtFixedRate(
+                      new TestTask(LATCH, ORDER), 50, 50, TimeUnit.MILLISECONDS);
+
+              assertTrue(LATCH.await(500, TimeUnit.MILLISECONDS));
+              assertTrue(promise.isPeriodic());
+              assertFalse(promise.isDone());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When EventLoop schedules with fixed delay, then wait delay between runs")
+    public void scheduleWithFixedDelay() {
+      CountDownLatch LATCH = new CountDownLatch(2);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              long start = System.nanoTime();
+              eventLoop.scheduleWithFixedDelay(
+                  () -> {
+                    try {
+                      Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                      // NO-OP
+                    }
+                    LATCH.countDown();
+                  },
+                  0,
+                  100,
+                  TimeUnit.MILLISECONDS);
+
+              assertTrue(LATCH.await(800, TimeUnit.MILLISECONDS));
+              // run, delay, run
+              assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When periodic task throws, then stop and fail the promise")
+    public void periodicTaskFailure() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              AtomicInteger runs = new AtomicInteger(0);
+              ScheduledPromise<?> promise =
+                  eventLoop.scheduleAtFixedRate(
+                      () -> {
+                        runs.incrementAndGet();
+                        throw new IllegalStateException();
+                      },
+                      0,
+                      10,
+                      TimeUnit.MILLISECONDS);
+
+              promise.await();
+              Thread.sleep(50);
+
+              assertTrue(promise.cause() instanceof IllegalStateException);
+              assertEquals(1, runs.get());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When EventLoop shuts down while periodic task runs, then cancel the promise")
+    public void periodicTaskShutdown() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              ScheduledPromise<?> promise =
+                  eventLoop.scheduleAtFixedRate(
+                      () -> eventLoop.shutdownGracefully(0, 100, TimeUnit.MILLISECONDS),
+                      0,
+                      10,
+                      TimeUnit.MILLISECONDS);
+
+              assertTrue(promise.await(500, TimeUnit.MILLISECONDS).isDone());
+              assertTrue(promise.isCancelled());
+              assertTrue(eventLoop.awaitTermination(500, TimeUnit.MILLISECONDS));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On ScheduledPromise cancel() method")
+  class CancelScheduledMethod {
+
+    @Test
+    @DisplayName("When scheduled task cancelled, then it does not run")
+    public void cancelScheduledTask() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              TestTask task = new TestTask(ORDER);
+              ScheduledPromise<?> promise = eventLoop.schedule(task, 100, TimeUnit.MILLISECONDS);
+              CountDownLatch LATCH = new CountDownLatch(1);
+              eventLoop.schedule(new TestTask(LATCH, ORDER), 150, TimeUnit.MILLISECONDS);
+
+              assertTrue(promise.cancel(false));
+              LATCH.await();
+
+              assertTrue(promise.isCancelled());
+              assertEquals(0, task.order);
+              assertEquals(1, eventLoop.firedScheduledTasks());
+              assertEquals(1, eventLoop.cancelledScheduledTasks());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When a periodic task cancels itself and throws, then run() does not throw")
+    public void periodicTaskCancelsItselfAndThrows() {
+      AtomicReference<ScheduledPromise<?>> SELF = new AtomicReference<>();
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              ScheduledPromise<?> promise =
+                  eventLoop.scheduleAtFixedRate(
+                      () -> {
+                        SELF.get().cancel(false);
+                        throw new IllegalStateException("task failed");
+                      },
+                      1,
+                      1,
+                      TimeUnit.HOURS);
+              SELF.set(promise);
+
+              Throwable thrown =
+                  eventLoop
+                      .submit(
+                          () -> {
+                            try {
+                              promise.run();
+                              return null;
+                            } catch (Throwable t) {
+                              return t;
+                            }
+                          })
+                      .get();
+
+              assertNull(thrown);
+              assertTrue(promise.isCancelled());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When scheduled tasks cancelled from other thread, then purge them from the queue")
+    public void purgeCancelledScheduledTasks() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.cancelledTimerPurgeRatio(0.5);
+              ScheduledPromise<?>[] promises = new ScheduledPromise<?>[10];
+              for (int i = 0; i < promises.length; i++) {
+                promises[i] =
+                    eventLoop
+                        .submit(() -> eventLoop.schedule(new TestTask(ORDER), 1, TimeUnit.HOURS))
+                        .get();
+              }
+              for (int i = 0; i < 5; i++) {
+                promises[i].cancel(false);
+              }
+              // Wake the event loop up so it purges the cancelled tasks.
+              eventLoop.submit(NOOP_TASK).await();
+
+              assertEquals(5, eventLoop.submit(() -> eventLoop.scheduledTaskQueue().size()).get());
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On idle() method")
+  class IdleMethod {
+
+    @Test
+    @DisplayName("When EventLoop is parked and given a task, then wake up and execute it")
+    public void wakeUpOnExecute() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.execute(new TestTask(ORDER));
+              // Give the loop time to run out of tasks and park.
+              Thread.sleep(100);
+
+              eventLoop.execute(new TestTask(LATCH, ORDER));
+
+              assertTrue(LATCH.await(100, TimeUnit.MILLISECONDS));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When EventLoop is parked and given a lazy task, then run it with the next task")
+    public void lazyExecuteDoesNotWakeUp() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              eventLoop.execute(new TestTask(ORDER));
+              // Give the loop time to run out of tasks and park.
+              Thread.sleep(100);
+
+              eventLoop.lazyExecute(new TestTask(LATCH, ORDER));
+              assertFalse(LATCH.await(100, TimeUnit.MILLISECONDS));
+
+              eventLoop.execute(NOOP_TASK);
+              assertTrue(LATCH.await(100, TimeUnit.MILLISECONDS));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName("When EventLoop is parked, then scheduled task still runs on time")
+    public void wakeUpOnDeadline() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            try {
+              long start = System.nanoTime();
+              eventLoop.schedule(new TestTask(LATCH, ORDER), 100, TimeUnit.MILLISECONDS);
+
+              assertTrue(LATCH.await(300, TimeUnit.MILLISECONDS));
+              assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On awaitTermination() method")
+  class AwaitTerminationMethod {
+
+    @Test
+    @DisplayName("When EventLoop shut down, then its thread exits and it is terminated")
+    public void terminate() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            eventLoop.execute(new TestTask(LATCH, ORDER));
+            LATCH.await();
+            assertFalse(eventLoop.awaitTermination(10, TimeUnit.MILLISECONDS));
+
+            eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+
+            assertTrue(eventLoop.awaitTermination(1, TimeUnit.SECONDS));
+            assertTrue(eventLoop.isTerminated());
+            assertTrue(eventLoop.terminationPromise().isSuccess());
+          });
+    }
+
+    @Test
+    @DisplayName("When EventLoop never started, then shutdown terminates it too")
+    public void terminateNotStarted() throws InterruptedException {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      eventLoop.terminationPromise().addListener(p -> LATCH.countDown());
+
+      eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+
+      assertTrue(eventLoop.awaitTermination(1, TimeUnit.SECONDS));
+      assertTrue(eventLoop.isTerminated());
+      assertTrue(LATCH.await(1, TimeUnit.SECONDS));
+
+      // Listeners added after termination are notified in the calling thread.
+      AtomicInteger NOTIFIED = new AtomicInteger(0);
+      eventLoop.terminationPromise().addListener(p -> NOTIFIED.incrementAndGet());
+      assertEquals(1, NOTIFIED.get());
+    }
+
+    @Test
+    @DisplayName("When EventLoopGroup shut down, then its children terminate in parallel")
+    public void terminateGroup() {
+      AbstractEventLoopGroup group =
+          new AbstractEventLoopGroup(64, null, (EventLoopChooserFactory) null) {
+            @Override
+            protected EventLoop newChild(Executor executor) {
+              return new SingleThreadEventLoop(executor) {
+                @Override
+                protected void run() {
+                  do {
+                    if (runTasks() == 0) {
+                      idle();
+                    }
+                  } while (!confirmShutdown());
+                }
+              };
+            }
+
+            @Override
+            protected ThreadFactory newDefaultThreadFactory() {
+              return Executors.defaultThreadFactory();
+            }
+          };
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            for (EventLoop child : group) {
+              child.submit(NOOP_TASK).get();
+            }
+
+            group.shutdownGracefully(50, TimeUnit.MILLISECONDS);
+
+            // Each child waits out the timeout at the same time, not one after another.
+            assertTrue(group.awaitTermination(500, TimeUnit.MILLISECONDS));
+            assertTrue(group.terminationPromise().isSuccess());
+            assertTrue(group.isTerminated());
+          });
+    }
+  }
+
+  @Nested
+  @DisplayName("On shutdownGracefully() method")
+  class ShutdownGracefullyMethod {
+
+    @Test
+    @DisplayName("When EventLoop shutdown gracefully and execute task, then throw exception")
+    public void testAddTaskAfterShutdown() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertThrows(
+          RejectedExecutionException.class,
+          () -> {
+            try {
+              eventLoop.execute(new TestTask(LATCH, ORDER));
+
+              LATCH.await();
+
+              assertTrue(eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS));
+
+              eventLoop.execute(new TestTask(ORDER));
+            } finally {
+              eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+
+    @Test
+    @DisplayName(
+        "When EventLoop shutdownGracefully, then before timeout, its state is not SHUTDOWN")
+    public void testShutdown() throws InterruptedException {
+      try {
+        assertTrue(eventLoop.shutdownGracefully(200, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(100);
+
+        assertFalse(eventLoop.isShutdown());
+      } finally {
+        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Test
+    @DisplayName("When EventLoop shutdownGracefully, then remove all scheduled tasks")
+    public void testRemoveAllScheduledTasks() throws InterruptedException {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      try {
+        // Although task1 is scheduled to run after 100ms (which is < 200ms), event loop updates its
+        // state into SHUTTING_DOWN right after calling shutdownGracefully() and cancels all
+        // scheduled tasks. So task1 is not running.
+        TestTask task1 = new TestTask(ORDER);
+        ScheduledPromise scheduledPromise1 = eventLoop.schedule(task1, 100, TimeUnit.MILLISECONDS);
+
+        TestTask task2 = new TestTask(ORDER);
+        ScheduledPromise scheduledPromise2 = eventLoop.schedule(task2, 300, TimeUnit.MILLISECONDS);
+
+        assertTrue(eventLoop.shutdownGracefully(200, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(300);
+
+        assertTrue(scheduledPromise1.isCancelled());
+        assertTrue(scheduledPromise2.isCancelled());
+        assertEquals(0, task1.order);
+        assertTrue(eventLoop.isShutdown());
+      } finally {
+        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Test
+    @DisplayName("When EventLoop shutdownGracefully, then run existing tasks")
+    public void testRunRemainingTasks2() throws InterruptedException {
+      try {
+        TimeTakingTask task1 = new TimeTakingTask(50);
+        eventLoop.execute(task1);
+
+        // Although task2 has longer duration than timeout, it runs.
+        TimeTakingTask task2 = new TimeTakingTask(200);
+        eventLoop.execute(task2);
+
+        assertTrue(eventLoop.shutdownGracefully(100, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(300);
+
+        assertTrue(task1.ran);
+        assertTrue(task2.ran);
+        assertTrue(eventLoop.isShutdown());
+      } finally {
+        eventLoop.shutdownGracefully(0L, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Test
+    @DisplayName(
+        "When EventLoop shuts down with quiet period, then accept tasks until none arrives")
+    public void testQuietPeriod() {
+      CountDownLatch LATCH = new CountDownLatch(1);
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            eventLoop.execute(new TestTask(LATCH, ORDER));
+            LATCH.await();
+
+            assertTrue(eventLoop.shutdownGracefully(100, 5000, TimeUnit.MILLISECONDS));
+            assertTrue(eventLoop.isShuttingDown());
+
+            TestTask task = new TestTask(ORDER);
+            eventLoop.execute(task);
+
+            // Terminates once quiet for 100ms, far before the timeout.
+            assertTrue(eventLoop.awaitTermination(800, TimeUnit.MILLISECONDS));
+            assertEquals(2, task.order);
+            assertThrows(RejectedExecutionException.class, () -> eventLoop.execute(NOOP_TASK));
+          });
+    }
+
+    @Test
+    @DisplayName("When timeout is shorter than quiet period, then throw exception")
+    public void testTimeoutShorterThanQuietPeriod() {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> eventLoop.shutdownGracefully(200, 100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("When ScheduledTaskPolicy is DRAIN, then run scheduled tasks due before timeout")
+    public void testDrainScheduledTasks() {
+      AtomicInteger ORDER = new AtomicInteger(0);
+
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            eventLoop.scheduledTaskPolicy(SingleThreadEventLoop.ScheduledTaskPolicy.DRAIN);
+            TestTask task1 = new TestTask(ORDER);
+            ScheduledPromise<?> scheduledPromise1 =
+                eventLoop.schedule(task1, 100, TimeUnit.MILLISECONDS);
+            TestTask task2 = new TestTask(ORDER);
+            ScheduledPromise<?> scheduledPromise2 =
+                eventLoop.schedule(task2, 2000, TimeUnit.MILLISECONDS);
+
+            assertTrue(eventLoop.shutdownGracefully(0, 300, TimeUnit.MILLISECONDS));
+
+            assertTrue(eventLoop.awaitTermination(800, TimeUnit.MILLISECONDS));
+            assertEquals(1, task1.order);
+            assertTrue(scheduledPromise1.isSuccess());
+            assertTrue(scheduledPromise2.isCancelled());
+          });
+    }
+
+    @Test
+    @DisplayName("When ScheduledTaskPolicy is DRAIN, then run periodic tasks until timeout")
+    public void testDrainPeriodicTasks() {
+      assertTimeout(
+          Duration.ofSeconds(1),
+          () -> {
+            eventLoop.scheduledTaskPolicy(SingleThreadEventLoop.ScheduledTaskPolicy.DRAIN);
+            AtomicInteger runs = new AtomicInteger(0);
+            ScheduledPromise<?> promise =
+                eventLoop.scheduleAtFixedRate(runs::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            assertTrue(eventLoop.shutdownGracefully(0, 300, TimeUnit.MILLISECONDS));
+            int runsAtShutdown = runs.get();
+
+            assertTrue(eventLoop.awaitTermination(800, TimeUnit.MILLISECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+            assertTrue(runs.get() - runsAtShutdown > 10);
+            assertTrue(promise.isCancelled());
+          });
     }
   }
 }
@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 public class DefaultPriorityQueueTest {
@@ -253,6 +254,30 @@ public class DefaultPriorityQueueTest {
     assertEmptyQueue(queue);
   }
 
+  @Test
+  public void testRandomOfferAndRemove() {
+    PriorityQueue<TestElement> queue =
+        new DefaultPriorityQueue<TestElement>(0, new TestElementComparator());
+    Random random = new Random(42);
+    List<TestElement> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      TestElement element = new TestElement(i);
+      expected.add(element);
+      queue.offer(element);
+    }
+    Collections.shuffle(expected, random);
+    for (TestElement element : new ArrayList<>(expected.subList(0, 300))) {
+      assertTrue(queue.removeTyped(element));
+      expected.remove(element);
+    }
+    Collections.sort(expected, TestElementComparator.INSTANCE);
+
+    for (TestElement element : expected) {
+      assertSame(element, queue.poll());
+    }
+    assertEmptyQueue(queue);
+  }
+
   private static final class TestElementComparator
       implements Comparator<TestElement>, Serializable {
 
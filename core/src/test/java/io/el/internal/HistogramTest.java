@@ -0,0 +1,56 @@
+package io.el.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void testPercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+
+    assertEquals(1000, histogram.count());
+    assertEquals(1000000, histogram.max());
+    assertWithinPrecision(500000, histogram.valueAtPercentile(50));
+    assertWithinPrecision(990000, histogram.valueAtPercentile(99));
+    assertEquals(1000000, histogram.valueAtPercentile(100));
+  }
+
+  @Test
+  public void testSmallAndLargeValues() {
+    Histogram histogram = new Histogram();
+    histogram.record(-1);
+    histogram.record(3);
+    histogram.record(Long.MAX_VALUE);
+
+    assertEquals(0, histogram.valueAtPercentile(0));
+    assertEquals(3, histogram.valueAtPercentile(50));
+    assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+  }
+
+  @Test
+  public void testAddAndReset() {
+    Histogram first = new Histogram();
+    Histogram second = new Histogram();
+    first.record(10);
+    second.record(20);
+    second.record(30);
+
+    Histogram sum = new Histogram().add(first).add(second);
+    assertEquals(3, sum.count());
+    assertEquals(30, sum.max());
+
+    sum.reset();
+    assertEquals(0, sum.count());
+    assertEquals(0, sum.valueAtPercentile(50));
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 8, expected + " ~ " + actual);
+  }
+}
@@ -0,0 +1,123 @@
+package io.el.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+public class MpscChunkedArrayQueueTest {
+
+  @Test
+  public void testOfferAndPollAcrossChunks() {
+    MpscQueue<Integer> queue = new MpscChunkedArrayQueue<>(4);
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(queue.offer(i));
+    }
+    assertEquals(10, queue.size());
+    assertEquals(0, queue.peek().intValue());
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, queue.poll().intValue());
+    }
+    assertNull(queue.poll());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testBoundedCapacity() {
+    MpscQueue<Integer> queue = new MpscChunkedArrayQueue<>(2, 3);
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertTrue(queue.offer(3));
+    assertFalse(queue.offer(4));
+
+    assertEquals(1, queue.poll().intValue());
+    assertTrue(queue.offer(4));
+    assertFalse(queue.offer(5));
+  }
+
+  @Test
+  public void testOfferAll() {
+    MpscQueue<Integer> queue = new MpscChunkedArrayQueue<>(4, 8);
+    assertTrue(queue.offer(0));
+    assertTrue(queue.offerAll(Arrays.asList(1, 2, 3, 4, 5, 6)));
+    assertFalse(queue.offerAll(Arrays.asList(7, 8)));
+    assertEquals(7, queue.size());
+
+    for (int i = 0; i < 7; i++) {
+      assertEquals(i, queue.poll().intValue());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void testDrain() {
+    MpscQueue<Integer> queue = new MpscChunkedArrayQueue<>(4);
+    for (int i = 0; i < 10; i++) {
+      queue.offer(i);
+    }
+    List<Integer> drained = new ArrayList<>();
+
+    assertEquals(6, queue.drain(drained::add, 6));
+    assertEquals(4, queue.drain(drained::add, 6));
+    assertEquals(0, queue.drain(drained::add, 6));
+
+    assertEquals(10, drained.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, drained.get(i).intValue());
+    }
+  }
+
+  @Test
+  public void testMultipleProducers() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 10000;
+    MpscQueue<long[]> queue = new MpscChunkedArrayQueue<>(16);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      Thread t =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                  queue.offer(new long[] {producer, i});
+                }
+              });
+      threads.add(t);
+      t.start();
+    }
+    start.countDown();
+
+    // Elements of each producer come out in the order they were added.
+    long[] next = new long[producers];
+    int received = 0;
+    while (received < producers * perProducer) {
+      long[] e = queue.poll();
+      if (e == null) {
+        continue;
+      }
+      assertEquals(next[(int) e[0]], e[1]);
+      next[(int) e[0]] += 1;
+      received += 1;
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertTrue(queue.isEmpty());
+  }
+}
@@ -0,0 +1,72 @@
+package io.el.internal;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class RecyclerTest {
+
+  private static Recycler<Pooled> newRecycler(int maxCapacityPerThread) {
+    return new Recycler<Pooled>(maxCapacityPerThread) {
+      @Override
+      protected Pooled newObject(Handle<Pooled> handle) {
+        return new Pooled(handle);
+      }
+    };
+  }
+
+  @Test
+  public void testRecycleInSameThread() {
+    Recycler<Pooled> recycler = newRecycler(16);
+    Pooled pooled = recycler.get();
+    pooled.recycle();
+
+    assertSame(pooled, recycler.get());
+    assertNotSame(pooled, recycler.get());
+  }
+
+  @Test
+  public void testRecycleInOtherThread() throws InterruptedException {
+    Recycler<Pooled> recycler = newRecycler(16);
+    Pooled pooled = recycler.get();
+
+    Thread thread = new Thread(pooled::recycle);
+    thread.start();
+    thread.join();
+
+    assertSame(pooled, recycler.get());
+  }
+
+  @Test
+  public void testRecycleTwice() {
+    Recycler<Pooled> recycler = newRecycler(16);
+    Pooled pooled = recycler.get();
+    pooled.recycle();
+
+    assertThrows(IllegalStateException.class, pooled::recycle);
+  }
+
+  @Test
+  public void testZeroCapacity() {
+    Recycler<Pooled> recycler = newRecycler(0);
+    Pooled pooled = recycler.get();
+    pooled.recycle();
+
+    assertNotSame(pooled, recycler.get());
+  }
+
+  private static final class Pooled {
+
+    private final Recycler.Handle<Pooled> handle;
+
+    Pooled(Recycler.Handle<Pooled> handle) {
+      this.handle = handle;
+    }
+
+    void recycle() {
+      handle.recycle(this);
+    }
+  }
+}
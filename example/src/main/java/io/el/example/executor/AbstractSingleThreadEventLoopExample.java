@@ -48,9 +48,7 @@ public abstract class AbstractSingleThreadEventLoopExample {
     eventLoop.shutdownGracefully(minDelay, TimeUnit.MILLISECONDS);
     LOGGER.info("[{}] Thread[{}] - Shutdown scheduler gracefully", new Date(), Thread.currentThread().getName());
 
-    while (!eventLoop.isShutdown()) {
-      // NO-OP
-    }
+    eventLoop.terminationPromise().await();
     LOGGER.info("[{}] Total: {} ms, Scheduled: {} ms", new Date(), System.currentTimeMillis() - start, totalScheduledDelayMillis);
   }
 
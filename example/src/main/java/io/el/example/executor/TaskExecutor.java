@@ -17,6 +17,8 @@ public class TaskExecutor extends SingleThreadEventLoop {
       Runnable task = takeTask();
       if (task != null) {
         task.run();
+      } else {
+        idle();
       }
     }
   }
@@ -18,6 +18,8 @@ public class DefaultSingleThreadEventLoop extends SingleThreadEventLoop {
       Runnable task = takeTask();
       if (task != null) {
         task.run();
+      } else {
+        idle();
       }
     }
   }
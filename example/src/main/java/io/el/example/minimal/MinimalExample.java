@@ -21,5 +21,6 @@ public class MinimalExample {
     Thread.sleep(1000);
 
     eventLoop.shutdownGracefully(1, TimeUnit.SECONDS);
+    eventLoop.awaitTermination(2, TimeUnit.SECONDS);
   }
 }
@@ -18,6 +18,8 @@ public class LongDelayTaskExecuteScheduler extends SingleThreadEventLoop {
       Runnable task = takeTask();
       if (task != null) {
         task.run();
+      } else {
+        idle();
       }
     }
   }
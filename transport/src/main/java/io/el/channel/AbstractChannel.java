@@ -12,6 +12,7 @@ public abstract class AbstractChannel implements Channel {
   private final ChannelId id;
   private final ChannelPipeline pipeline;
   private final Internal internal;
+  private final ChannelPromise voidPromise = new VoidChannelPromise(this);
 
   private volatile ChannelEventLoop channelEventLoop;
   private volatile boolean registered;
@@ -82,6 +83,11 @@ public abstract class AbstractChannel implements Channel {
     return pipeline().connect(remoteAddress, newPromise());
   }
 
+  @Override
+  public ChannelPromise voidPromise() {
+    return voidPromise;
+  }
+
   private ChannelPromise newPromise() {
     return new DefaultChannelPromise(this, channelEventLoop);
   }
@@ -39,6 +39,12 @@ public interface Channel {
 
   ChannelPromise connect(SocketAddress remoteAddress);
 
+  /**
+   * Returns the shared {@link ChannelPromise} to pass to operations whose outcome nobody waits for,
+   * so no promise is allocated for them. See {@link VoidChannelPromise}.
+   */
+  ChannelPromise voidPromise();
+
   /** Returns an internal-use-only object that providees unsafe operations */
   Internal internal();
 
@@ -57,6 +57,7 @@ public abstract class ChannelInitializer<C extends Channel> implements ChannelIn
   }
 
   private void removeState(final ChannelHandlerContext ctx) {
-    ctx.eventLoop().execute(() -> initMap.remove(ctx));
+    // Nothing waits for the state to be removed, so do not wake the event loop up for it.
+    ctx.eventLoop().lazyExecute(() -> initMap.remove(ctx));
   }
 }
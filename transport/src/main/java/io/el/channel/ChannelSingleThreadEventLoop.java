@@ -1,6 +1,7 @@
 package io.el.channel;
 
 import io.el.concurrent.EventLoop;
+import io.el.concurrent.IdleStrategy;
 import io.el.concurrent.SingleThreadEventLoop;
 import io.el.internal.ObjectUtil;
 import java.util.Iterator;
@@ -16,6 +17,12 @@ public abstract class ChannelSingleThreadEventLoop extends SingleThreadEventLoop
     this.parent = parent;
   }
 
+  protected ChannelSingleThreadEventLoop(
+      Executor executor, ChannelEventLoopGroup parent, IdleStrategy idleStrategy) {
+    super(executor, idleStrategy);
+    this.parent = parent;
+  }
+
   @Override
   public Iterator<EventLoop> iterator() {
     throw new UnsupportedOperationException();
@@ -1,5 +1,6 @@
 package io.el.channel;
 
+import io.el.concurrent.IdleStrategy;
 import io.el.concurrent.ThreadPerTaskExecutor;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -14,13 +15,16 @@ public class DefaultChannelEventLoop extends ChannelSingleThreadEventLoop {
     super(executor, parent);
   }
 
+  public DefaultChannelEventLoop(
+      Executor executor, ChannelEventLoopGroup parent, IdleStrategy idleStrategy) {
+    super(executor, parent, idleStrategy);
+  }
+
   @Override
   public void run() {
     do {
-      Runnable task = takeTask();
-      if (task != null) {
-        task.run();
-        updateLastExecutionTime();
+      if (runTasks() == 0) {
+        idle();
       }
     } while (!confirmShutdown());
   }
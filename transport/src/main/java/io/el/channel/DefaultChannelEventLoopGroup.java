@@ -1,6 +1,7 @@
 package io.el.channel;
 
 import io.el.concurrent.AbstractEventLoopGroup;
+import io.el.concurrent.DefaultEventLoopChooserFactory;
 import io.el.concurrent.EventLoop;
 import io.el.concurrent.EventLoopChooserFactory;
 import java.util.concurrent.Executor;
@@ -11,7 +12,13 @@ public class DefaultChannelEventLoopGroup extends AbstractEventLoopGroup
     implements ChannelEventLoopGroup {
 
   public DefaultChannelEventLoopGroup(int nThreads) {
-    super(nThreads, null, null);
+    this(nThreads, DefaultEventLoopChooserFactory.Policy.ROUND_ROBIN);
+  }
+
+  /** Create the group with a chooser of {@code chooserPolicy} to spread channels. */
+  public DefaultChannelEventLoopGroup(
+      int nThreads, DefaultEventLoopChooserFactory.Policy chooserPolicy) {
+    super(nThreads, null, chooserPolicy);
   }
 
   /**
@@ -24,7 +31,6 @@ public class DefaultChannelEventLoopGroup extends AbstractEventLoopGroup
    */
   public DefaultChannelEventLoopGroup(
       int nThreads, Executor executor, EventLoopChooserFactory chooserFactory) {
-    // TODO: change after chooser factory implemented
     super(nThreads, executor, chooserFactory);
   }
 
@@ -53,6 +59,11 @@ public class DefaultChannelEventLoopGroup extends AbstractEventLoopGroup
     return super.shutdownGracefully(timeout, unit);
   }
 
+  @Override
+  public boolean shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+    return super.shutdownGracefully(quietPeriod, timeout, unit);
+  }
+
   @Override
   public boolean isShuttingDown() {
     return super.isShuttingDown();
@@ -1,21 +1,21 @@
 package io.el.channel;
 
-import io.el.concurrent.DefaultPromise;
+import io.el.concurrent.CompletionPromise;
 import io.el.concurrent.EventLoop;
 import io.el.concurrent.Promise;
 import io.el.concurrent.PromiseListener;
 
-public class DefaultChannelPromise extends DefaultPromise<Void> implements ChannelPromise {
+public class DefaultChannelPromise extends CompletionPromise<Void> implements ChannelPromise {
 
   private final Channel channel;
 
   public DefaultChannelPromise(Channel channel) {
-    super(channel.channelEventLoop(), () -> {});
+    super(channel.channelEventLoop());
     this.channel = channel;
   }
 
   public DefaultChannelPromise(Channel channel, EventLoop eventLoop) {
-    super(eventLoop, () -> {});
+    super(eventLoop);
     this.channel = channel;
   }
 
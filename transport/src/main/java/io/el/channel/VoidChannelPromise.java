@@ -0,0 +1,76 @@
+package io.el.channel;
+
+import io.el.concurrent.AbstractPromise;
+import io.el.concurrent.EventLoop;
+import io.el.concurrent.Promise;
+import io.el.concurrent.PromiseListener;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ChannelPromise} shared by all the operations of a {@link Channel} whose caller does not
+ * care about the outcome, so no promise is allocated for them. It never completes: a success is
+ * ignored, and a failure is passed to {@link ChannelPipeline#fireExceptionCaught(Throwable)}.
+ * Listeners added to it are ignored, so handlers may pass it on like any other promise, but waiting
+ * for it throws {@link IllegalStateException}.
+ */
+public final class VoidChannelPromise extends AbstractPromise<Void> implements ChannelPromise {
+
+  private final Channel channel;
+
+  VoidChannelPromise(Channel channel) {
+    // The channel may not be registered yet, so its event loop is looked up when needed.
+    super(null);
+    this.channel = channel;
+  }
+
+  @Override
+  protected EventLoop eventLoop() {
+    return channel.channelEventLoop();
+  }
+
+  @Override
+  public void run() {
+    // Nothing to run.
+  }
+
+  @Override
+  public Channel channel() {
+    return channel;
+  }
+
+  @Override
+  public ChannelPromise setSuccess(Void result) {
+    return this;
+  }
+
+  @Override
+  public ChannelPromise setFailure(Throwable cause) {
+    channel.pipeline().fireExceptionCaught(cause);
+    return this;
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return false;
+  }
+
+  @Override
+  public ChannelPromise addListener(PromiseListener<? extends Promise<? super Void>> listener) {
+    // It never completes, so the listener would never be notified.
+    return this;
+  }
+
+  @Override
+  public ChannelPromise await() {
+    throw fail();
+  }
+
+  @Override
+  public ChannelPromise await(long timeout, TimeUnit unit) {
+    throw fail();
+  }
+
+  private static IllegalStateException fail() {
+    return new IllegalStateException("void promise: the outcome is not tracked");
+  }
+}
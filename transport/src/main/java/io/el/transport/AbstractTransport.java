@@ -37,23 +37,17 @@ public abstract class AbstractTransport<T extends AbstractTransport<T, C>, C ext
     if (registered.cause() != null) {
       return registered;
     }
+    // The listener runs on the event loop of the channel, so bind(...) is called there without
+    // submitting an extra task, and completes the returned promise without an intermediate one.
     ChannelPromise result = new DefaultChannelPromise(channel);
-    if (registered.isDone()) {
-      doBind(registered, channel, localAddress, result);
-      return result;
-    }
-    // When the flow reaches here, that means `registered` promise is still not
-    // resolved, so add the promise listener for receiving callback.
-    // And in the callback, Transport runs doBind(...) to complete the binding
     registered.addListener(
         promise -> {
           if (!promise.isSuccess()) {
             result.setFailure(promise.cause());
             return;
           }
-          doBind(registered, channel, localAddress, result);
+          channel.pipeline().bind(localAddress, result);
         });
-
     return result;
   }
 
@@ -72,32 +66,6 @@ public abstract class AbstractTransport<T extends AbstractTransport<T, C>, C ext
     return group.register(channel);
   }
 
-  private void doBind(
-      final ChannelPromise registered,
-      final Channel channel,
-      final SocketAddress localAddress,
-      final ChannelPromise result) {
-    channel
-        .channelEventLoop()
-        .execute(
-            () -> {
-              if (registered.isSuccess()) {
-                channel
-                    .bind(localAddress)
-                    .addListener(
-                        promise -> {
-                          if (promise.isSuccess()) {
-                            result.setSuccess(null);
-                            return;
-                          }
-                          result.setFailure(promise.cause());
-                        });
-                return;
-              }
-              result.setFailure(registered.cause());
-            });
-  }
-
   abstract void init(Channel channel) throws Exception;
 
   /** Validate all the parameters */
@@ -23,46 +23,20 @@ public class ClientTransport extends AbstractTransport<ClientTransport, Channel>
       return registered;
     }
 
+    // The listener runs on the event loop of the channel, so connect(...) is called there without
+    // submitting an extra task, and completes the returned promise without an intermediate one.
     ChannelPromise result = new DefaultChannelPromise(channel);
-    if (registered.isDone()) {
-      doConnect(remoteAddress, result);
-      return result;
-    }
-
-    // When the flow reaches here, that means `registered` promise is still not
-    // resolved, so add the promise listener for receiving callback.
-    // And in the callback, Transport runs doConnect(...) to complete the binding
     registered.addListener(
         promise -> {
-          if (promise.cause() != null) {
+          if (!promise.isSuccess()) {
             result.setFailure(promise.cause());
             return;
           }
-          doConnect(remoteAddress, result);
+          channel.pipeline().connect(remoteAddress, result);
         });
-
     return result;
   }
 
-  private void doConnect(final SocketAddress remoteAddress, final ChannelPromise connected) {
-    final Channel channel = connected.channel();
-    channel
-        .channelEventLoop()
-        .execute(
-            () -> {
-              channel
-                  .connect(remoteAddress)
-                  .addListener(
-                      result -> {
-                        if (result.isSuccess()) {
-                          connected.setSuccess(null);
-                          return;
-                        }
-                        connected.setFailure(result.cause());
-                      });
-            });
-  }
-
   @Override
   void init(Channel channel) throws Exception {
     ChannelPipeline p = channel.pipeline();
@@ -1,6 +1,8 @@
 package io.el.channel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
@@ -163,6 +165,43 @@ public class AbstractChannelTests {
     }
   }
 
+  @Nested
+  @DisplayName("On voidPromise() method")
+  class VoidPromiseMethod {
+
+    @Test
+    @DisplayName("when a handler listens to the void promise, then the operation still runs")
+    public void passThroughPipeline() throws Exception {
+      ChannelEventLoop eventLoop = mock(ChannelEventLoop.class);
+      when(eventLoop.inEventLoop()).thenReturn(true);
+      TestOutboundHandler handler =
+          new TestOutboundHandler() {
+            @Override
+            public void handlerAdded(ChannelHandlerContext ctx) {}
+
+            @Override
+            public void bind(
+                ChannelHandlerContext ctx, SocketAddress localAddress, ChannelPromise promise) {
+              ctx.bind(localAddress, promise.addListener(p -> fail("should not be called")));
+            }
+          };
+
+      TestChannel channel = new TestChannel();
+      channel.pipeline().addLast(handler);
+      ChannelPromise registerPromise = new DefaultChannelPromise(channel, eventLoop);
+      channel.internal().register(eventLoop, registerPromise);
+      registerPromise.await();
+
+      SocketAddress localAddress = InetSocketAddress.createUnresolved("localhost", 8080);
+      ChannelPromise promise = channel.voidPromise();
+      channel.pipeline().bind(localAddress, promise);
+
+      assertEquals(localAddress, channel.localAddress);
+      assertFalse(promise.isDone());
+      assertSame(promise, channel.voidPromise());
+    }
+  }
+
   private abstract class TestInboundHandler implements ChannelInboundHandler {
 
     @Override
@@ -0,0 +1,87 @@
+package io.el.channel;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class VoidChannelPromiseTest {
+
+  private final Channel channel = mock(Channel.class);
+  private final ChannelPipeline pipeline = mock(ChannelPipeline.class);
+  private final VoidChannelPromise promise = new VoidChannelPromise(channel);
+
+  @Nested
+  @DisplayName("On setSuccess() method")
+  class SetSuccessMethod {
+
+    @Test
+    @DisplayName("When set success, then it stays not done")
+    public void ignoreSuccess() {
+      when(channel.pipeline()).thenReturn(pipeline);
+
+      assertSame(promise, promise.setSuccess(null));
+      assertFalse(promise.isDone());
+      verifyNoInteractions(pipeline);
+    }
+  }
+
+  @Nested
+  @DisplayName("On setFailure() method")
+  class SetFailureMethod {
+
+    @Test
+    @DisplayName("When set failure, then fire exceptionCaught through the pipeline")
+    public void fireExceptionCaught() {
+      when(channel.pipeline()).thenReturn(pipeline);
+      Throwable cause = new IllegalStateException();
+
+      assertSame(promise, promise.setFailure(cause));
+      assertFalse(promise.isDone());
+      verify(pipeline).fireExceptionCaught(cause);
+    }
+  }
+
+  @Nested
+  @DisplayName("On addListener() method")
+  class AddListenerMethod {
+
+    @Test
+    @DisplayName("When add listener, then it is ignored")
+    public void ignoreListener() {
+      when(channel.pipeline()).thenReturn(pipeline);
+
+      assertSame(promise, promise.addListener(p -> fail("should not be called")));
+      promise.setSuccess(null);
+      promise.setFailure(new IllegalStateException());
+    }
+  }
+
+  @Nested
+  @DisplayName("On await() and cancel() methods")
+  class AwaitMethod {
+
+    @Test
+    @DisplayName("When await, then throw exception")
+    public void throwOnAwait() {
+      assertThrows(IllegalStateException.class, promise::await);
+      assertThrows(IllegalStateException.class, () -> promise.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("When cancel, then it is not cancelled")
+    public void notCancellable() {
+      assertFalse(promise.cancel(false));
+      assertFalse(promise.isCancelled());
+    }
+  }
+}